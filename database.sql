@@ -26,3 +26,80 @@ ALTER TABLE categories
 
 ALTER TABLE categories
     ADD COLUMN last_modified_date TIMESTAMP;
+
+-- keyset pagination: (category_id, id) sudah tercakup index fk, tambahkan untuk sort by price/name
+CREATE INDEX idx_products_category_price ON products (category_id, price, id);
+
+CREATE INDEX idx_products_category_name ON products (category_id, name, id);
+
+-- pooled id generator (allocationSize = 50), pengganti AUTO_INCREMENT supaya insert bisa di-batch
+-- nilai awal = max(id) + 50 karena optimizer pooled memakai (next_val - 49 .. next_val)
+CREATE TABLE products_seq(
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO products_seq SELECT COALESCE(MAX(id), 0) + 50 FROM products;
+
+CREATE TABLE categories_seq(
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO categories_seq SELECT COALESCE(MAX(id), 0) + 50 FROM categories;
+
+-- full-text search produk, pengganti LIKE '%term%'
+ALTER TABLE products
+    ADD FULLTEXT INDEX ft_products_name (name);
+
+ALTER TABLE categories
+    ADD FULLTEXT INDEX ft_categories_name (name);
+
+-- optimistic locking (@Version)
+ALTER TABLE products
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE categories
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- jumlah product per category, pengganti COUNT(*) di query paging
+ALTER TABLE categories
+    ADD COLUMN product_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE categories c
+SET c.product_count = (SELECT COUNT(*) FROM products p WHERE p.category_id = c.id);
+
+-- bulk delete per nama (ProductBulkDeleteService): chunk FOR UPDATE harus lewat index, bukan scan
+-- yang mengunci setiap baris yang dibaca; juga dipakai query by name lain dan ProductUpsertService
+CREATE INDEX idx_products_name ON products (name);
+
+-- transactional outbox, diisi OutboxEventListener dan query bulk, dikirim OutboxRelay
+CREATE TABLE outbox_events(
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- work queue product, di-claim dengan FOR UPDATE SKIP LOCKED (lihat ProductWorkerPool)
+ALTER TABLE products
+    ADD COLUMN lease_owner VARCHAR(64) NULL,
+    ADD COLUMN lease_expires_at TIMESTAMP(6) NULL,
+    ADD COLUMN processed_at TIMESTAMP(6) NULL,
+    ADD INDEX idx_products_category_processed (category_id, processed_at);
+
+-- upsert product by name (ProductUpsertService), nama sendiri boleh kembar jadi kunci unik di kolom terpisah;
+-- diisi hanya untuk nama yang sekarang belum kembar, sisanya NULL sampai diambil alih upsert
+ALTER TABLE products
+    ADD COLUMN name_key VARCHAR(100) NULL,
+    ADD UNIQUE INDEX uk_products_name_key (name_key);
+
+UPDATE products p
+    JOIN (SELECT name FROM products GROUP BY name HAVING COUNT(*) = 1) u ON u.name = p.name
+SET p.name_key = p.name;
+
+-- outbox tidak dihapus saat dikirim: OutboxRelay hanya menandai published_at, tiap node membaca sendiri
+-- untuk PriceStatisticsService, baris dihapus setelah app.outbox.retention
+ALTER TABLE outbox_events
+    ADD COLUMN published_at TIMESTAMP(6) NULL,
+    ADD INDEX idx_outbox_events_published (published_at);
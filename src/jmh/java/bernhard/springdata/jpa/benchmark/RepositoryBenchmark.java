@@ -0,0 +1,216 @@
+package bernhard.springdata.jpa.benchmark;
+
+import bernhard.springdata.jpa.BelajarSpringDataJpaApplication;
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductFilter;
+import bernhard.springdata.jpa.model.ProductPrice;
+import bernhard.springdata.jpa.model.SimpleProduct;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import bernhard.springdata.jpa.service.ProductScrollService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Repository layer benchmarks against an in-memory H2 database (profile "benchmark"), so they
+ * run offline. Data volume is a JMH parameter, e.g. {@code -Djmh.args="-p products=1000000"}.
+ * MySQL specific paths such as the FULLTEXT search are not covered here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param("100000")
+    private int products;
+
+    @Param("10")
+    private int categories;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductRepository productRepository;
+
+    private ProductScrollService productScrollService;
+
+    private TransactionOperations transactionOperations;
+
+    private Category category;
+
+    private int deepPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BelajarSpringDataJpaApplication.class)
+                .profiles("benchmark")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        productScrollService = context.getBean(ProductScrollService.class);
+        transactionOperations = context.getBean(TransactionOperations.class);
+
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        List<Category> saved = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            Category newCategory = new Category();
+            newCategory.setName("Category " + i);
+            saved.add(newCategory);
+        }
+        categoryRepository.saveAllBatched(saved);
+        category = saved.get(0);
+
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice((long) i);
+            product.setCategory(saved.get(i % categories));
+            batch.add(product);
+
+            if (batch.size() == 10_000) {
+                productRepository.saveAllBatched(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        productRepository.saveAllBatched(batch);
+
+        deepPage = Math.max(0, products / categories / PAGE_SIZE - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long countByCategoryName() {
+        return productRepository.countByCategory_Name("Category 0");
+    }
+
+    @Benchmark
+    public boolean existsByName() {
+        return productRepository.existsByName("Product 4242");
+    }
+
+    @Benchmark
+    public List<Product> findAllByCategoryNameSorted() {
+        return productRepository.findAllByCategory_Name("Category 0", Sort.by("price"));
+    }
+
+    @Benchmark
+    public Page<Product> pageFirst() {
+        return productRepository.findAllByCategory_Name("Category 0", PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Page<Product> pageDeep() {
+        return productRepository.findAllByCategory_Name("Category 0", PageRequest.of(deepPage, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Slice<Product> sliceFirst() {
+        return productRepository.findAllByCategory(category, PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Slice<Product> sliceDeep() {
+        return productRepository.findAllByCategory(category, PageRequest.of(deepPage, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Object keysetFirst() {
+        return productScrollService.findAllByCategoryName("Category 0", Sort.by("id"), PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public Page<Product> searchProduct() {
+        return productRepository.searchProduct("%Product 4242%", PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Product> specification() {
+        Specification<Product> specification = (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.equal(root.get("name"), "Product 4242"),
+                criteriaBuilder.equal(root.get("name"), "Product 4243")
+        );
+        return productRepository.findAll(specification);
+    }
+
+    @Benchmark
+    public Window<Product> filter() {
+        return productRepository.findAllByFilter(ProductFilter.builder()
+                .nameLike("Product 42%")
+                .minPrice(0L)
+                .sort(Sort.by("price"))
+                .limit(PAGE_SIZE)
+                .build());
+    }
+
+    @Benchmark
+    public List<SimpleProduct> projectionSimpleProduct() {
+        return productRepository.findAllByNameLike("Product 42%", SimpleProduct.class);
+    }
+
+    @Benchmark
+    public List<ProductPrice> projectionProductPrice() {
+        return productRepository.findAllByNameLike("Product 42%", ProductPrice.class);
+    }
+
+    //baseline untuk projectionEngine*, bandingkan alokasi dengan -Djmh.args="-prof gc"
+    @Benchmark
+    public List<SimpleProduct> entitySimpleProduct() {
+        return productRepository.findAllByNameLike("Product 42%", Product.class).stream()
+                .map(product -> new SimpleProduct(product.getId(), product.getName()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<SimpleProduct> projectionEngineSimpleProduct() {
+        return productRepository.findAllProjectedByNameLike("Product 42%", SimpleProduct.class);
+    }
+
+    @Benchmark
+    public List<ProductPrice> projectionEngineProductPrice() {
+        return productRepository.findAllProjectedByNameLike("Product 42%", ProductPrice.class);
+    }
+
+    @Benchmark
+    public void streamByCategory(Blackhole blackhole) {
+        transactionOperations.executeWithoutResult(status -> {
+            try (Stream<Product> stream = productRepository.streamAllByCategory(category)) {
+                stream.forEach(blackhole::consume);
+            }
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package bernhard.springdata.jpa.benchmark;
+
+import bernhard.springdata.jpa.BelajarSpringDataJpaApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Time from launching the JVM until the first {@code GET /products/1} is answered, which needs
+ * the web server, the JPA context and a repository query. Each run is a fresh JVM on the
+ * in-memory H2 database of profile "benchmark". Not a JMH benchmark, because every mode needs
+ * its own JVM flags. The AOT modes use the output of the fast-startup Maven profiles, the
+ * AppCDS training run on H2 as well:
+ * <pre>
+ * mvn -P benchmark,fast-startup,fast-startup-cds package exec:exec -DskipTests \
+ *     -Dcds.training.args="--spring.profiles.active=fast-startup,benchmark --spring.main.web-application-type=servlet --spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" \
+ *     -Djmh.main=bernhard.springdata.jpa.benchmark.StartupBenchmark -Djmh.args=5
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final Path FAST_STARTUP = Path.of("target", "fast-startup");
+
+    private static final String H2_DIALECT = "org.hibernate.dialect.H2Dialect";
+
+    enum Mode {
+        DEFAULT,
+        DEFERRED,
+        AOT,
+        AOT_CDS
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+        System.out.printf("%-10s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        for (Mode mode : Mode.values()) {
+            if (command(mode, 0).isEmpty()) {
+                System.out.printf("%-10s skipped, run mvn -P %s package first%n", mode,
+                        mode == Mode.AOT_CDS ? "fast-startup,fast-startup-cds" : "fast-startup");
+                continue;
+            }
+
+            List<Long> millis = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                millis.add(timeToFirstQuery(mode, client).toMillis());
+            }
+            millis.sort(null);
+            System.out.printf("%-10s %10d %10d %10d%n", mode, millis.get(0), millis.get(millis.size() / 2), millis.get(millis.size() - 1));
+        }
+    }
+
+    private static Duration timeToFirstQuery(Mode mode, HttpClient client) throws Exception {
+        int port = freePort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/1"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command(mode, port).orElseThrow())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue());
+                }
+                try {
+                    //404 juga dihitung: query sudah jalan, product 1 memang tidak ada di H2
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status == 200 || status == 404) {
+                        return Duration.ofNanos(System.nanoTime() - start);
+                    }
+                    throw new IllegalStateException(mode + " answered " + status);
+                } catch (IOException e) {
+                    //belum listen
+                    Thread.sleep(20);
+                }
+            }
+            throw new IllegalStateException(mode + " did not answer within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static Optional<List<String>> command(Mode mode, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+
+        String profiles = mode == Mode.DEFAULT ? "benchmark" : "fast-startup,benchmark";
+        if (mode == Mode.DEFAULT || mode == Mode.DEFERRED) {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(BelajarSpringDataJpaApplication.class.getName());
+        } else {
+            Optional<Path> jar = fastStartupJar();
+            Path archive = FAST_STARTUP.resolve("app.jsa");
+            if (jar.isEmpty() || (mode == Mode.AOT_CDS && !Files.exists(archive))) {
+                return Optional.empty();
+            }
+            if (mode == Mode.AOT_CDS) {
+                command.add("-XX:SharedArchiveFile=" + archive);
+                command.add("-Xlog:cds=off");
+            }
+            command.add("-Dspring.aot.enabled=true");
+            command.add("-jar");
+            command.add(jar.get().toString());
+        }
+
+        command.add("--spring.profiles.active=" + profiles);
+        if (mode != Mode.DEFAULT) {
+            //fast-startup memakai MySQLDialect tanpa membaca metadata JDBC, di sini database-nya H2
+            command.add("--spring.jpa.database-platform=" + H2_DIALECT);
+        }
+        //profile benchmark mematikan web server, di sini justru request pertama yang diukur
+        command.add("--spring.main.web-application-type=servlet");
+        command.add("--server.port=" + port);
+        return Optional.of(command);
+    }
+
+    private static Optional<Path> fastStartupJar() throws IOException {
+        if (!Files.isDirectory(FAST_STARTUP)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(FAST_STARTUP)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-fast-startup.jar")).findFirst();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package bernhard.springdata.jpa.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * In-process Caffeine regions for the Hibernate second-level and query cache. Hibernate keeps
+ * them consistent on its own: entity regions are updated on save/delete and query results are
+ * invalidated through the update-timestamps region whenever the table changes.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    public static final String CATEGORY_REGION = "categories";
+
+    public static final String CATEGORY_QUERY_REGION = "category-queries";
+
+    @Value("${app.cache.category.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${app.cache.category.time-to-live:1h}")
+    private Duration timeToLive;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        //CacheManager default dipakai bersama se-JVM, tiap application context butuh miliknya sendiri
+        CachingProvider cachingProvider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = cachingProvider.getCacheManager(
+                URI.create("hibernate:" + UUID.randomUUID()), cachingProvider.getDefaultClassLoader());
+
+        cacheManager.createCache(CATEGORY_REGION, boundedRegion());
+        cacheManager.createCache(CATEGORY_QUERY_REGION, boundedRegion());
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, boundedRegion());
+
+        //timestamps tidak boleh di-evict, kalau hilang query cache bisa mengembalikan data basi
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cachePropertiesCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> boundedRegion() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
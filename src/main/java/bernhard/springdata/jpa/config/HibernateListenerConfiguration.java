@@ -0,0 +1,57 @@
+package bernhard.springdata.jpa.config;
+
+import bernhard.springdata.jpa.listener.OutboxEventListener;
+import bernhard.springdata.jpa.listener.ProductCountEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Registers the application's Hibernate event listeners with the session factory.
+ */
+@Configuration
+public class HibernateListenerConfiguration {
+
+    @Bean
+    public ProductCountEventListener productCountEventListener() {
+        return new ProductCountEventListener();
+    }
+
+    @Bean
+    public OutboxEventListener outboxEventListener() {
+        return new OutboxEventListener();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer listenerPropertiesCustomizer(ProductCountEventListener productCountEventListener,
+                                                                      OutboxEventListener outboxEventListener) {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+                EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+                registry.appendListeners(EventType.POST_INSERT, productCountEventListener);
+                registry.appendListeners(EventType.POST_UPDATE, productCountEventListener);
+                registry.appendListeners(EventType.POST_DELETE, productCountEventListener);
+                registry.appendListeners(EventType.POST_INSERT, outboxEventListener);
+                registry.appendListeners(EventType.POST_UPDATE, outboxEventListener);
+                registry.appendListeners(EventType.POST_DELETE, outboxEventListener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(integrator));
+    }
+}
@@ -0,0 +1,99 @@
+package bernhard.springdata.jpa.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read/write splitting, only active when {@code app.datasource.replicas[0].url} is set.
+ * {@code @Transactional(readOnly = true)} work, which includes Spring Data query methods
+ * called outside a read-write transaction, goes to a replica. Writes and locking reads go
+ * to the primary ({@code spring.datasource.*}): through the workload pools of
+ * {@link WorkloadPoolConfiguration} when those are enabled, otherwise one Hikari pool.
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, DataSourceRoutingProperties.class})
+@ConditionalOnProperty(prefix = "app.datasource", name = "replicas[0].url")
+public class ReadReplicaConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    @ConditionalOnProperty(prefix = "app.datasource.workload", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService replicaHealthCheckExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(ObjectProvider<WorkloadRoutingDataSource> workloadRoutingDataSource,
+                                                             ObjectProvider<HikariDataSource> primaryDataSource,
+                                                             DataSourceRoutingProperties properties,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry,
+                                                             ScheduledExecutorService replicaHealthCheckExecutor) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            DataSourceRoutingProperties.Replica replica = properties.getReplicas().get(i);
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername());
+            config.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword());
+            config.setDriverClassName(dataSourceProperties.getDriverClassName());
+            config.setMaximumPoolSize(replica.getMaximumPoolSize());
+            config.setReadOnly(true);
+            //replica yang mati saat startup tidak boleh menggagalkan aplikasi
+            config.setInitializationFailTimeout(-1);
+            //pool primary sudah dapat metrics dari auto-configuration, replica didaftarkan manual
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new HikariDataSource(config));
+        }
+
+        //pool per workload tetap dipakai untuk primary, replica hanya mengambil alih yang read-only
+        DataSource primary = workloadRoutingDataSource.getIfAvailable();
+        if (primary == null) {
+            primary = primaryDataSource.getObject();
+        }
+        ReplicaRoutingDataSource routingDataSource =
+                new ReplicaRoutingDataSource(primary, replicas, properties.getSelection());
+        long interval = properties.getHealthCheckInterval().toMillis();
+        replicaHealthCheckExecutor.scheduleWithFixedDelay(routingDataSource::checkHealth, 0, interval, TimeUnit.MILLISECONDS);
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,110 @@
+package bernhard.springdata.jpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary, which
+ * is either a single pool or the {@link WorkloadRoutingDataSource} with one pool per workload.
+ * Must sit behind a LazyConnectionDataSourceProxy, because the read-only flag of a transaction
+ * is only known after the transaction manager has asked for a connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+
+    private final DataSourceRoutingProperties.Selection selection;
+
+    private volatile boolean[] healthy;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                    DataSourceRoutingProperties.Selection selection) {
+        this.replicas = replicas;
+        this.selection = selection;
+        //replica dianggap mati sampai health check pertama berhasil
+        this.healthy = new boolean[replicas.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        Integer replica = selection == DataSourceRoutingProperties.Selection.LEAST_BUSY ? leastBusy() : roundRobin();
+        //semua replica mati, baca dari primary saja
+        return replica == null ? PRIMARY : replica;
+    }
+
+    public void checkHealth() {
+        boolean[] checked = new boolean[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean valid;
+            try (Connection connection = replicas.get(i).getConnection()) {
+                valid = connection.isValid(1);
+            } catch (Exception e) {
+                valid = false;
+            }
+            if (healthy[i] != valid) {
+                log.warn("Replica {} is now {}", replicas.get(i).getPoolName(), valid ? "healthy" : "unhealthy");
+            }
+            checked[i] = valid;
+        }
+        healthy = checked;
+    }
+
+    public boolean isHealthy(int replica) {
+        return healthy[replica];
+    }
+
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private Integer roundRobin() {
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int candidate = Math.floorMod(next.getAndIncrement(), replicas.size());
+            if (healthy[candidate]) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Integer leastBusy() {
+        Integer best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (!healthy[i] || replicas.get(i).getHikariPoolMXBean() == null) {
+                continue;
+            }
+            int active = replicas.get(i).getHikariPoolMXBean().getActiveConnections();
+            if (active < bestActive) {
+                best = i;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,155 @@
+package bernhard.springdata.jpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous SQL statement log fed by {@link SqlLoggingDataSource}. The calling thread only
+ * decides whether a statement is logged (slower than {@code slowThreshold}, or picked by
+ * {@code sampleRate}) and offers it to a bounded buffer; formatting and writing happen on a
+ * single background thread. When the buffer is full the entry is dropped and counted, so a
+ * slow log appender never slows down queries.
+ */
+@Slf4j
+public class SqlLog implements AutoCloseable {
+
+    private static final Logger SQL_LOGGER = LoggerFactory.getLogger("bernhard.springdata.jpa.sql");
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final long slowThresholdNanos;
+
+    private final double sampleRate;
+
+    private final BlockingQueue<Entry> buffer;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public SqlLog(Duration slowThreshold, double sampleRate, int bufferSize) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::drain, "sql-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Whether a statement that took {@code elapsedNanos} should be logged. Checked before an
+     * {@link Entry} is built, so statements that are not logged allocate nothing extra.
+     */
+    public boolean isLogged(long elapsedNanos) {
+        return elapsedNanos >= slowThresholdNanos
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public void submit(Entry entry) {
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    private void drain() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                Entry entry = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    write(entry);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to write SQL log entry", e);
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        //format key=value (logfmt), satu baris per statement supaya mudah di-parse
+        String line = "durationMs=" + millis(entry.executeNanos())
+                + " totalMs=" + millis(entry.totalNanos())
+                + " rows=" + entry.rows()
+                + " batch=" + entry.batchSize()
+                + " repository=" + (entry.caller() != null ? entry.caller() : "-")
+                + " thread=" + entry.thread()
+                + " sql=" + quote(entry.sql())
+                + " params=" + quote(format(entry.parameters()));
+        if (entry.executeNanos() >= slowThresholdNanos) {
+            SQL_LOGGER.warn("slow {}", line);
+        } else {
+            SQL_LOGGER.info("sampled {}", line);
+        }
+        written.incrementAndGet();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+
+    //batch: satu list bind values per baris
+    private static String format(List<?> parameters) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < parameters.size(); i++) {
+            Object value = parameters.get(i);
+            builder.append(i == 0 ? "" : ", ");
+            if (value instanceof List<?> row) {
+                builder.append(format(row));
+            } else if (value instanceof byte[] bytes) {
+                builder.append("<").append(bytes.length).append(" bytes>");
+            } else {
+                String text = String.valueOf(value);
+                builder.append(text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text);
+            }
+        }
+        return builder.append("]").toString();
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", " ") + "\"";
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * @param executeNanos time spent in execute, without reading the result set
+     * @param totalNanos   time until the result set was closed, includes fetching rows
+     * @param parameters   bind values; for a batch, one list of bind values per row
+     * @param rows         rows read for queries, rows changed for updates
+     * @param caller       repository method on the calling thread, e.g. ProductRepository.findAll
+     */
+    public record Entry(String sql, List<Object> parameters, long executeNanos, long totalNanos, long rows,
+                        int batchSize, String caller, String thread) {
+    }
+}
@@ -0,0 +1,72 @@
+package bernhard.springdata.jpa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Structured SQL log, see {@link SqlLog}. Wraps the application DataSource in a
+ * {@link SqlLoggingDataSource} and every Spring Data repository in a
+ * {@link RepositoryMethodContext}. Disable with {@code app.sql-log.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-log", name = "enabled", matchIfMissing = true)
+public class SqlLoggingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public SqlLog sqlLog(@Value("${app.sql-log.slow-threshold:200ms}") Duration slowThreshold,
+                         @Value("${app.sql-log.sample-rate:0}") double sampleRate,
+                         @Value("${app.sql-log.buffer-size:4096}") int bufferSize) {
+        return new SqlLog(slowThreshold, sampleRate, bufferSize);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlLoggingPostProcessor(ObjectProvider<SqlLog> sqlLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                //advice paling luar, supaya flush saat commit juga tercatat atas nama method repository
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(0,
+                                    new RepositoryMethodContext(information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (beanName.equals("dataSource") && bean instanceof DataSource dataSource) {
+                    return new SqlLoggingDataSource(dataSource, sqlLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder sqlLogMetrics(SqlLog sqlLog) {
+        return registry -> {
+            FunctionCounter.builder("sql.log.entries", sqlLog, SqlLog::getWrittenCount)
+                    .tag("result", "written")
+                    .register(registry);
+            FunctionCounter.builder("sql.log.entries", sqlLog, SqlLog::getDroppedCount)
+                    .tag("result", "dropped")
+                    .description("Entries dropped because the SQL log buffer was full")
+                    .register(registry);
+            Gauge.builder("sql.log.buffered", sqlLog, SqlLog::getBufferedCount)
+                    .register(registry);
+        };
+    }
+}
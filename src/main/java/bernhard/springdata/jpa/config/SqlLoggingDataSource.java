@@ -0,0 +1,269 @@
+package bernhard.springdata.jpa.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC proxy that measures every statement and hands the ones {@link SqlLog} wants to it:
+ * SQL, bind values, execution time, row count and the calling repository method. Replaces
+ * {@code hibernate.show_sql}, which prints every statement synchronously on the caller's
+ * thread without any of that. Result sets are only wrapped, to count rows, for statements
+ * that are going to be logged. Batches are logged with the bind values of every row, so those
+ * are copied on each {@code addBatch()}.
+ */
+public class SqlLoggingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+
+    private final SqlLog sqlLog;
+
+    public SqlLoggingDataSource(DataSource targetDataSource, SqlLog sqlLog) {
+        super(targetDataSource);
+        this.sqlLog = sqlLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        ConnectionHandler handler = new ConnectionHandler(connection);
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private Connection proxy;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlLoggingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String value ? value : null;
+                return wrap(statement, sql);
+            }
+            return result;
+        }
+
+        private Statement wrap(Statement statement, String sql) {
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+            StatementHandler handler = new StatementHandler(statement, sql, proxy);
+            handler.proxy = (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+            return handler.proxy;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        //Statement.getConnection() harus mengembalikan proxy, bukan koneksi asli
+        private final Connection connection;
+
+        private Statement proxy;
+
+        private final String sql;
+
+        private final List<Object> parameters = new ArrayList<>();
+
+        //per baris batch: salinan bind values (PreparedStatement) atau SQL-nya (Statement)
+        private List<Object> batch = new ArrayList<>();
+
+        //execute() yang menghasilkan result set, entry dikirim setelah getResultSet() dibaca
+        private Execution pending;
+
+        private StatementHandler(Statement target, String sql, Connection connection) {
+            this.target = target;
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                submitPending();
+                return execute(method, args);
+            }
+            switch (name) {
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "getResultSet" -> {
+                    return resultSet(SqlLoggingDataSource.invoke(target, method, args));
+                }
+                case "getMoreResults", "close" -> submitPending();
+                case "addBatch" -> batch.add(args != null && args.length == 1 ? args[0] : new ArrayList<>(parameters));
+                case "clearBatch" -> batch.clear();
+                case "clearParameters" -> parameters.clear();
+                default -> {
+                    //setString(1, ...), setLong(2, ...), setNull(3, Types.BIGINT), ...
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameter(index, name.equals("setNull") ? null : args[1]);
+                    }
+                }
+            }
+            return SqlLoggingDataSource.invoke(target, method, args);
+        }
+
+        private void parameter(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            boolean batchExecution = BATCH_METHODS.contains(method.getName());
+            List<Object> batchRows = batch;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SqlLoggingDataSource.invoke(target, method, args);
+            } finally {
+                if (batchExecution) {
+                    //batch JDBC selalu kosong setelah executeBatch, juga kalau gagal
+                    batch = new ArrayList<>();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (!sqlLog.isLogged(elapsed)) {
+                return result;
+            }
+
+            Execution execution = batchExecution
+                    ? batchExecution(batchRows, start, elapsed)
+                    : new Execution(args != null && args.length > 0 && args[0] instanceof String value ? value : sql,
+                    new ArrayList<>(parameters), start, elapsed, 0, RepositoryMethodContext.current(),
+                    Thread.currentThread().getName());
+            if (result instanceof ResultSet resultSet) {
+                return countRows(resultSet, execution);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                //execute() dengan result set: baris dihitung lewat getResultSet()
+                pending = execution;
+                return result;
+            }
+            sqlLog.submit(execution.entry(elapsed, rows(result)));
+            return result;
+        }
+
+        //params berisi bind values tiap baris; Statement.addBatch(String) berisi SQL tiap baris
+        private Execution batchExecution(List<Object> rows, long start, long elapsed) {
+            boolean statements = !rows.isEmpty() && rows.get(0) instanceof String;
+            String batchSql = statements
+                    ? rows.stream().map(String::valueOf).collect(Collectors.joining("; "))
+                    : sql;
+            return new Execution(batchSql, statements ? List.of() : rows, start, elapsed, rows.size(),
+                    RepositoryMethodContext.current(), Thread.currentThread().getName());
+        }
+
+        private Object resultSet(Object result) {
+            if (pending == null || !(result instanceof ResultSet resultSet)) {
+                return result;
+            }
+            Execution execution = pending;
+            pending = null;
+            return countRows(resultSet, execution);
+        }
+
+        //result set dari execute() yang tidak pernah dibaca: jumlah baris tidak diketahui
+        private void submitPending() {
+            if (pending != null) {
+                sqlLog.submit(pending.entry(pending.elapsed(), -1));
+                pending = null;
+            }
+        }
+
+        private long rows(Object result) throws SQLException {
+            if (result instanceof Number number) {
+                return number.longValue();
+            }
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            //execute() = false: update count
+            return target.getUpdateCount();
+        }
+
+        private ResultSet countRows(ResultSet resultSet, Execution execution) {
+            long[] rows = new long[1];
+            boolean[] closed = new boolean[1];
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("getStatement")) {
+                            return this.proxy;
+                        }
+                        Object result = SqlLoggingDataSource.invoke(resultSet, method, args);
+                        //baris dihitung sambil dibaca, entry dikirim saat result set ditutup
+                        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                            rows[0]++;
+                        } else if (method.getName().equals("close") && !closed[0]) {
+                            closed[0] = true;
+                            sqlLog.submit(execution.entry(System.nanoTime() - execution.start(), rows[0]));
+                        }
+                        return result;
+                    });
+        }
+
+        private record Execution(String sql, List<Object> parameters, long start, long elapsed, int batchSize,
+                                 String caller, String thread) {
+
+            SqlLog.Entry entry(long totalNanos, long rows) {
+                return new SqlLog.Entry(sql, parameters, elapsed, totalNanos, rows, batchSize, caller, thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package bernhard.springdata.jpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Active with {@code spring.threads.virtual.enabled=true} on Java 21 (profile "virtual-threads").
+ * Spring Boot then runs Tomcat requests and the application task executor on virtual threads,
+ * and connections are admitted through a {@link ConnectionAdmissionDataSource} sized to the
+ * pool behind it: one per workload pool (see {@link WorkloadPoolConfiguration}), or one in
+ * front of a single Hikari {@code dataSource}, sized from that pool itself. Other DataSources
+ * (read replica routing) are left unwrapped.
+ * <p>
+ * Pinning: Connector/J 8.x executes every statement inside {@code synchronized (connectionMutex)},
+ * so a virtual thread waiting for a query result stays pinned to its carrier thread (JDK 21 to
+ * 23). The pom therefore pins Connector/J 9.x, which uses {@code ReentrantLock} instead and lets
+ * the virtual thread unmount during I/O. Startup warns when an older driver is on the classpath.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+
+    @PostConstruct
+    void checkDriver() {
+        Driver driver;
+        try {
+            driver = DriverManager.getDriver("jdbc:mysql://localhost/");
+        } catch (SQLException e) {
+            //bukan MySQL (H2 di test)
+            return;
+        }
+        if (driver.getMajorVersion() < 9) {
+            log.warn("MySQL Connector/J {}.{} pins virtual threads to their carrier during every query, use 9.x or keep "
+                            + "-Djdk.virtualThreadScheduler.parallelism above the total connection pool size",
+                    driver.getMajorVersion(), driver.getMinorVersion());
+        }
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (!beanName.equals("dataSource") || bean instanceof WorkloadRoutingDataSource) {
+                    return bean;
+                }
+                //ukuran dari pool yang sudah jadi, bukan dari spring.datasource.hikari.* yang mungkin tidak dipakai
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionAdmissionDataSource(hikari, hikari.getMaximumPoolSize(),
+                            Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                if (bean instanceof DataSource) {
+                    log.warn("No connection admission for DataSource {}, its pool size is unknown", bean.getClass().getName());
+                }
+                return bean;
+            }
+        };
+    }
+}
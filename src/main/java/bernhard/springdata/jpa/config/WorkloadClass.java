@@ -0,0 +1,34 @@
+package bernhard.springdata.jpa.config;
+
+import java.util.Locale;
+
+/**
+ * Connection pool a unit of work runs on, see {@link WorkloadPoolConfiguration}.
+ */
+public enum WorkloadClass {
+
+    /**
+     * Short request/response reads and writes, the default.
+     */
+    OLTP,
+
+    /**
+     * Long reads: exports, streaming, scans.
+     */
+    REPORTING,
+
+    /**
+     * Background jobs: bulk deletes, work queue, imports.
+     */
+    BATCH;
+
+    //label @Transactional, contoh @Transactional(label = "reporting")
+    static WorkloadClass fromLabel(String label) {
+        for (WorkloadClass workload : values()) {
+            if (workload.name().equals(label.toUpperCase(Locale.ROOT))) {
+                return workload;
+            }
+        }
+        return null;
+    }
+}
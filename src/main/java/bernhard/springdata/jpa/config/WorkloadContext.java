@@ -0,0 +1,123 @@
+package bernhard.springdata.jpa.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the {@link WorkloadClass} of the current thread for {@link WorkloadRoutingDataSource}.
+ * Set by {@link Workload} on a method or class, by a workload name in the label of
+ * {@code @Transactional} (e.g. {@code @Transactional(label = "reporting")}), or explicitly with
+ * {@link #call}. Unlike {@link RepositoryMethodContext} the innermost call wins, so a nested
+ * {@code REQUIRES_NEW} transaction can run on another pool.
+ */
+public class WorkloadContext implements MethodInterceptor {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    //Optional.empty() = method tanpa workload, disimpan juga supaya tidak dicari ulang.
+    //key termasuk target class: method yang sama bisa diwarisi class dengan @Workload berbeda
+    private static final Map<MethodClassKey, Optional<WorkloadClass>> RESOLVED = new ConcurrentHashMap<>();
+
+    public static WorkloadClass current() {
+        WorkloadClass workload = CURRENT.get();
+        return workload != null ? workload : WorkloadClass.OLTP;
+    }
+
+    public static <T> T call(WorkloadClass workload, Supplier<T> supplier) {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            return supplier.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(WorkloadClass workload, Runnable runnable) {
+        call(workload, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        WorkloadClass workload = resolve(invocation.getMethod(), targetClass);
+        if (workload == null) {
+            return invocation.proceed();
+        }
+
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            return invocation.proceed();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static WorkloadClass resolve(Method method, Class<?> targetClass) {
+        return RESOLVED.computeIfAbsent(new MethodClassKey(method, targetClass), key -> {
+            Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+            return Optional.ofNullable(find(method, specificMethod, targetClass));
+        }).orElse(null);
+    }
+
+    private static WorkloadClass find(Method method, Method specificMethod, Class<?> targetClass) {
+        //urutan: method, lalu method di interface (repository), lalu class
+        for (Method candidate : new Method[]{specificMethod, method}) {
+            Workload workload = AnnotatedElementUtils.findMergedAnnotation(candidate, Workload.class);
+            if (workload != null) {
+                return workload.value();
+            }
+        }
+        for (Class<?> type : new Class<?>[]{targetClass, method.getDeclaringClass()}) {
+            Workload workload = type != null ? AnnotatedElementUtils.findMergedAnnotation(type, Workload.class) : null;
+            if (workload != null) {
+                return workload.value();
+            }
+        }
+
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Transactional.class);
+        if (transactional == null) {
+            transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        }
+        if (transactional != null) {
+            for (String label : transactional.label()) {
+                WorkloadClass workload = WorkloadClass.fromLabel(label);
+                if (workload != null) {
+                    return workload;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void restore(WorkloadClass previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    static class Pointcut extends StaticMethodMatcherPointcut {
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return resolve(method, targetClass) != null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package bernhard.springdata.jpa.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Hikari pool per {@link WorkloadClass} instead of the single {@code spring.datasource.hikari}
+ * pool, active with {@code app.datasource.workload.enabled=true}. With read replicas the pools
+ * serve the primary behind {@link ReadReplicaConfiguration}'s router, which sends read-only work
+ * to the replicas. Work is assigned with {@link Workload}, a {@code @Transactional}
+ * label or {@link WorkloadContext#call}; everything else runs on the OLTP pool. Each pool reports
+ * the usual {@code hikaricp.*} metrics tagged with its name.
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, WorkloadPoolProperties.class})
+@ConditionalOnProperty(prefix = "app.datasource.workload", name = "enabled")
+public class WorkloadPoolConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public WorkloadRoutingDataSource workloadRoutingDataSource(WorkloadPoolProperties properties,
+                                                               DataSourceProperties dataSourceProperties,
+                                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                                               Environment environment) {
+        //virtual threads: admission per pool, sesuai ukuran maksimum pool itu (lihat VirtualThreadConfiguration)
+        boolean admission = Threading.VIRTUAL.isActive(environment);
+        Map<WorkloadClass, WorkloadRoutingDataSource.Pool> pools = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            WorkloadPoolProperties.Pool pool = properties.get(workload);
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(workload.name().toLowerCase());
+            config.setJdbcUrl(dataSourceProperties.determineUrl());
+            config.setUsername(dataSourceProperties.determineUsername());
+            config.setPassword(dataSourceProperties.determinePassword());
+            config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            pool.getDataSourceProperties().forEach(config::addDataSourceProperty);
+            //mulai dari ukuran minimum, membesar lewat adjust() kalau ada antrean
+            config.setMinimumIdle(pool.getMinimumSize());
+            config.setMaximumPoolSize(pool.getMinimumSize());
+            config.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+            pools.put(workload, new WorkloadRoutingDataSource.Pool(workload, new HikariDataSource(config),
+                    pool.getMinimumSize(), pool.getMaximumSize(), admission));
+        }
+        return new WorkloadRoutingDataSource(pools, properties.getWaitThreshold(), properties.getIdleUtilization());
+    }
+
+    //ditutup lewat workloadRoutingDataSource; dengan replica, dataSource dibuat ReadReplicaConfiguration
+    @Bean(destroyMethod = "")
+    @Primary
+    @Conditional(WithoutReplicas.class)
+    public DataSource dataSource(WorkloadRoutingDataSource workloadRoutingDataSource) {
+        return workloadRoutingDataSource;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService workloadPoolAdjustExecutor(WorkloadRoutingDataSource workloadRoutingDataSource,
+                                                               WorkloadPoolProperties properties) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workload-pool-adjust");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getAdjustInterval().toMillis();
+        executor.scheduleWithFixedDelay(workloadRoutingDataSource::adjust, interval, interval, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    //di luar TransactionInterceptor, workload harus sudah ada saat transaksi mengambil koneksi
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor workloadAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new WorkloadContext.Pointcut(), new WorkloadContext());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    public MeterBinder workloadPoolMetrics(WorkloadRoutingDataSource workloadRoutingDataSource) {
+        return registry -> {
+            for (WorkloadClass workload : WorkloadClass.values()) {
+                WorkloadRoutingDataSource.Pool pool = workloadRoutingDataSource.getPool(workload);
+                String name = workload.name().toLowerCase();
+                Gauge.builder("workload.pool.size", pool, WorkloadRoutingDataSource.Pool::getSize)
+                        .tag("pool", name)
+                        .description("Current maximum size chosen by adaptive sizing")
+                        .register(registry);
+                FunctionCounter.builder("workload.pool.resizes", pool, WorkloadRoutingDataSource.Pool::getGrownCount)
+                        .tag("pool", name)
+                        .tag("direction", "grow")
+                        .register(registry);
+                FunctionCounter.builder("workload.pool.resizes", pool, WorkloadRoutingDataSource.Pool::getShrunkCount)
+                        .tag("pool", name)
+                        .tag("direction", "shrink")
+                        .register(registry);
+            }
+        };
+    }
+
+    static class WithoutReplicas extends NoneNestedConditions {
+
+        WithoutReplicas() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "app.datasource", name = "replicas[0].url")
+        static class ReplicasConfigured {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package bernhard.springdata.jpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.workload")
+public class WorkloadPoolProperties {
+
+    private boolean enabled;
+
+    private Duration adjustInterval = Duration.ofSeconds(10);
+
+    /**
+     * Average wait for a connection above which a pool grows.
+     */
+    private Duration waitThreshold = Duration.ofMillis(5);
+
+    /**
+     * Peak share of busy connections below which a pool shrinks.
+     */
+    private double idleUtilization = 0.5;
+
+    private Pool oltp = new Pool();
+
+    private Pool reporting = new Pool();
+
+    private Pool batch = new Pool();
+
+    public Pool get(WorkloadClass workload) {
+        return switch (workload) {
+            case OLTP -> oltp;
+            case REPORTING -> reporting;
+            case BATCH -> batch;
+        };
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int minimumSize = 1;
+
+        private int maximumSize = 10;
+
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+
+        /**
+         * JDBC driver properties for this pool only, on top of {@code spring.datasource.url}.
+         */
+        private Map<String, String> dataSourceProperties = new HashMap<>();
+    }
+}
@@ -0,0 +1,191 @@
+package bernhard.springdata.jpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections from the pool of the current {@link WorkloadClass}, so long exports
+ * and batch jobs can use up their own pool but never the OLTP one. Every pool is resized
+ * between its minimum and maximum size by {@link #adjust()}: it grows by a quarter when callers
+ * waited longer than {@code waitThreshold} on average, and shrinks by one connection when the
+ * peak number of busy connections stayed below {@code idleUtilization} of its size.
+ */
+@Slf4j
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<WorkloadClass, Pool> pools;
+
+    private final long waitThresholdNanos;
+
+    private final double idleUtilization;
+
+    public WorkloadRoutingDataSource(Map<WorkloadClass, Pool> pools, Duration waitThreshold, double idleUtilization) {
+        this.pools = new EnumMap<>(pools);
+        this.waitThresholdNanos = waitThreshold.toNanos();
+        this.idleUtilization = idleUtilization;
+
+        Map<Object, Object> targets = new HashMap<>();
+        pools.forEach((workload, pool) -> targets.put(workload, pool.connectionSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(pools.get(WorkloadClass.OLTP).connectionSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Pool pool = getPool(WorkloadContext.current());
+        long start = System.nanoTime();
+        try {
+            return pool.connectionSource.getConnection();
+        } finally {
+            pool.record(System.nanoTime() - start);
+        }
+    }
+
+    public Pool getPool(WorkloadClass workload) {
+        return pools.get(workload);
+    }
+
+    /**
+     * Resizes every pool from what was observed since the previous call.
+     */
+    public void adjust() {
+        pools.values().forEach(pool -> pool.adjust(waitThresholdNanos, idleUtilization));
+    }
+
+    public void close() {
+        pools.values().forEach(pool -> pool.dataSource.close());
+    }
+
+    public static final class Pool {
+
+        private final WorkloadClass workload;
+
+        private final HikariDataSource dataSource;
+
+        //dataSource, atau ConnectionAdmissionDataSource di depannya (virtual threads)
+        private final DataSource connectionSource;
+
+        private final int minimumSize;
+
+        private final int maximumSize;
+
+        //per interval adjust(), di-reset setiap adjust
+        private final LongAdder waitNanos = new LongAdder();
+
+        private final LongAdder acquisitions = new LongAdder();
+
+        private final AtomicInteger peakActive = new AtomicInteger();
+
+        private final AtomicLong connections = new AtomicLong();
+
+        private final AtomicLong grown = new AtomicLong();
+
+        private final AtomicLong shrunk = new AtomicLong();
+
+        public Pool(WorkloadClass workload, HikariDataSource dataSource, int minimumSize, int maximumSize) {
+            this(workload, dataSource, minimumSize, maximumSize, false);
+        }
+
+        /**
+         * With {@code admission}, callers first pass a {@link ConnectionAdmissionDataSource} with
+         * {@code maximumSize} permits and the pool's connection timeout. Sized to the maximum, not
+         * the current size, so waits still reach Hikari and {@link #adjust} can grow the pool.
+         */
+        public Pool(WorkloadClass workload, HikariDataSource dataSource, int minimumSize, int maximumSize, boolean admission) {
+            if (minimumSize <= 0 || maximumSize < minimumSize) {
+                throw new IllegalArgumentException("Invalid size bounds for " + workload + " pool");
+            }
+            this.workload = workload;
+            this.dataSource = dataSource;
+            this.connectionSource = admission
+                    ? new ConnectionAdmissionDataSource(dataSource, maximumSize, Duration.ofMillis(dataSource.getConnectionTimeout()))
+                    : dataSource;
+            this.minimumSize = minimumSize;
+            this.maximumSize = maximumSize;
+        }
+
+        private void record(long elapsedNanos) {
+            waitNanos.add(elapsedNanos);
+            acquisitions.increment();
+            connections.incrementAndGet();
+            HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+            if (poolBean != null) {
+                peakActive.accumulateAndGet(poolBean.getActiveConnections(), Math::max);
+            }
+        }
+
+        private void adjust(long waitThresholdNanos, double idleUtilization) {
+            long count = acquisitions.sumThenReset();
+            long averageWait = count == 0 ? 0 : waitNanos.sumThenReset() / count;
+            int peak = peakActive.getAndSet(0);
+            HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+            if (poolBean == null) {
+                return;
+            }
+
+            int size = dataSource.getMaximumPoolSize();
+            int waiting = poolBean.getThreadsAwaitingConnection();
+            peak = Math.max(peak, poolBean.getActiveConnections());
+            if ((waiting > 0 || averageWait >= waitThresholdNanos) && size < maximumSize) {
+                resize(size, Math.min(maximumSize, size + Math.max(1, size / 4)));
+                grown.incrementAndGet();
+            } else if (waiting == 0 && averageWait < waitThresholdNanos && peak < size * idleUtilization && size > minimumSize) {
+                //turun pelan-pelan, lonjakan berikutnya tidak langsung kekurangan koneksi
+                resize(size, size - 1);
+                shrunk.incrementAndGet();
+            }
+        }
+
+        private void resize(int from, int to) {
+            //Hikari membuat koneksi baru sampai batas baru, koneksi idle di atas batas ditutup housekeeper
+            dataSource.setMaximumPoolSize(to);
+            log.info("Resized {} pool from {} to {} connections", workload, from, to);
+        }
+
+        public WorkloadClass getWorkload() {
+            return workload;
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        public DataSource getConnectionSource() {
+            return connectionSource;
+        }
+
+        public int getSize() {
+            return dataSource.getMaximumPoolSize();
+        }
+
+        public long getConnectionCount() {
+            return connections.get();
+        }
+
+        public long getGrownCount() {
+            return grown.get();
+        }
+
+        public long getShrunkCount() {
+            return shrunk.get();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package bernhard.springdata.jpa.controller;
+
+import bernhard.springdata.jpa.model.CacheStatistics;
+import bernhard.springdata.jpa.service.CacheStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class CacheStatisticsController {
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping("/statistics/cache")
+    public List<CacheStatistics> cacheStatistics() {
+        return cacheStatisticsService.findAll();
+    }
+}
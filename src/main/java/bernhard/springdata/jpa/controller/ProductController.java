@@ -0,0 +1,24 @@
+package bernhard.springdata.jpa.controller;
+
+import bernhard.springdata.jpa.model.SimpleProduct;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+public class ProductController {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @GetMapping("/products/{productId}")
+    public SimpleProduct get(@PathVariable("productId") Long productId) {
+        return productRepository.findById(productId)
+                .map(product -> new SimpleProduct(product.getId(), product.getName()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+    }
+}
@@ -0,0 +1,39 @@
+package bernhard.springdata.jpa.controller;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.model.ExportFormat;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.service.ProductExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+public class ProductExportController {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @GetMapping("/categories/{categoryId}/products/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("categoryId") Long categoryId,
+                                                        @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+
+        //body ditulis di thread async, transaksi dibuka di dalam productExportService
+        StreamingResponseBody body = outputStream -> productExportService.export(category, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
+    }
+}
@@ -1,6 +1,8 @@
 package bernhard.springdata.jpa.entity;
 
 
+import bernhard.springdata.jpa.config.CacheConfiguration;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
@@ -8,11 +10,16 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -27,10 +34,13 @@ import java.util.List;
 @Entity
 @Table(name = "categories")
 @EntityListeners({AuditingEntityListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfiguration.CATEGORY_REGION)
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -38,6 +48,11 @@ public class Category {
     @OneToMany(mappedBy = "category")
     private List<Product> products;
 
+    //diisi ProductCountEventListener dan query bulk delete, bukan lewat entity
+    @ColumnDefault("0")
+    @Column(name = "product_count", nullable = false, insertable = false, updatable = false)
+    private Long productCount = 0L;
+
     @CreatedDate
     @Column(name = "created_date")
     private Instant createdDate;
@@ -46,4 +61,7 @@ public class Category {
     @Column(name = "last_modified_date")
     private Instant lastModifiedDate;
 
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,52 @@
+package bernhard.springdata.jpa.entity;
+
+import bernhard.springdata.jpa.model.ChangeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Row of the transactional outbox. Written with plain JDBC by OutboxEventListener and the bulk
+ * queries, published by OutboxRelay and read by every node's PriceStatisticsService; mapped only
+ * so the table is part of the schema.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 20)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 10)
+    private ChangeType eventType;
+
+    @ColumnDefault("CURRENT_TIMESTAMP(6)")
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private Instant createdAt;
+
+    //diisi OutboxRelay; baris tetap ada selama app.outbox.retention untuk pembaca di node lain
+    @Column(name = "published_at", insertable = false, updatable = false)
+    private Instant publishedAt;
+}
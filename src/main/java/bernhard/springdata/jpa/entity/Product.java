@@ -1,19 +1,28 @@
 package bernhard.springdata.jpa.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+
 @Getter
 @Setter
 @AllArgsConstructor
@@ -26,17 +35,49 @@ import lombok.Setter;
                 query = "SELECT p FROM Product p WHERE p.name = :name"
         )
 })
+@NamedEntityGraph(
+        name = "Product.category",
+        attributeNodes = @NamedAttributeNode("category")
+)
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //IDENTITY mematikan JDBC batching, MySQL tidak punya sequence jadi Hibernate pakai table products_seq
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     private String name;
 
+    //kunci unik upsert, hanya diisi ProductUpsertService; NULL untuk product lain karena nama boleh kembar
+    @Column(name = "name_key", unique = true, insertable = false)
+    private String nameKey;
+
     private Long price;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", referencedColumnName = "id")
     private Category category;
+
+    @Version
+    private Long version;
+
+    //work queue, hanya diubah lewat bulk query di ProductRepository (claimProducts dan seterusnya),
+    //jadi save() dari entity lama tidak bisa menimpa claim worker lain
+    @Column(name = "lease_owner", insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at", insertable = false, updatable = false)
+    private Instant leaseExpiresAt;
+
+    @Column(name = "processed_at", insertable = false, updatable = false)
+    private Instant processedAt;
+
+    //nama diganti lewat entity: kunci lama tidak boleh lagi dipakai upsert untuk nama itu
+    @PreUpdate
+    void clearStaleNameKey() {
+        if (nameKey != null && !nameKey.equalsIgnoreCase(name)) {
+            nameKey = null;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package bernhard.springdata.jpa.listener;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ChangeType;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes a change record to {@code outbox_events} for every Product and Category insert, update
+ * and delete, in the same transaction as the change. Changes are collected per session, one
+ * record per entity (insert followed by delete cancels out), and written as a single JDBC batch
+ * right before commit. Bulk queries bypass these events and write their own records (see
+ * ProductRepository).
+ */
+public class OutboxEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    public static final String INSERT_EVENT =
+            "insert into outbox_events (aggregate_type, aggregate_id, event_type) values (?, ?, ?)";
+
+    private final Map<SharedSessionContractImplementor, Map<AggregateKey, ChangeType>> changes = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        add(event.getSession(), event.getEntity(), event.getId(), ChangeType.CREATED);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        add(event.getSession(), event.getEntity(), event.getId(), ChangeType.UPDATED);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        add(event.getSession(), event.getEntity(), event.getId(), ChangeType.DELETED);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void add(EventSource session, Object entity, Object id, ChangeType type) {
+        if (!(entity instanceof Product || entity instanceof Category) || !(id instanceof Long aggregateId)) {
+            return;
+        }
+        changes.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::apply);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> changes.remove(s));
+            return new LinkedHashMap<>();
+        }).merge(new AggregateKey(entity.getClass().getSimpleName(), aggregateId), type, OutboxEventListener::combine);
+    }
+
+    //null = entry dihapus: dibuat lalu dihapus di transaksi yang sama tidak perlu dikirim
+    private static ChangeType combine(ChangeType previous, ChangeType next) {
+        if (previous == ChangeType.CREATED) {
+            return next == ChangeType.DELETED ? null : ChangeType.CREATED;
+        }
+        return next;
+    }
+
+    private void apply(SessionImplementor session) {
+        Map<AggregateKey, ChangeType> sessionChanges = changes.get(session);
+        if (sessionChanges == null || sessionChanges.isEmpty()) {
+            return;
+        }
+        PreparedStatement statement = session.getJdbcCoordinator().getStatementPreparer().prepareStatement(INSERT_EVENT);
+        try {
+            for (Map.Entry<AggregateKey, ChangeType> entry : sessionChanges.entrySet()) {
+                statement.setString(1, entry.getKey().type());
+                statement.setLong(2, entry.getKey().id());
+                statement.setString(3, entry.getValue().name());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "Could not write outbox events", INSERT_EVENT);
+        } finally {
+            session.getJdbcCoordinator().getLogicalConnection().getResourceRegistry().release(statement);
+            session.getJdbcCoordinator().afterStatementExecution();
+        }
+    }
+
+    private record AggregateKey(String type, long id) {
+    }
+}
@@ -0,0 +1,115 @@
+package bernhard.springdata.jpa.listener;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@code categories.product_count} in step with Product inserts, deletes and category
+ * changes. Deltas are collected per session and written once per category right before the
+ * transaction commits, after the final flush, so a batch of 10.000 inserts into one category
+ * costs a single UPDATE. Bulk JPQL/SQL deletes bypass these events and adjust the counter
+ * themselves (see ProductRepository#deleteProductUsingName).
+ */
+public class ProductCountEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String UPDATE_COUNT = "update categories set product_count = product_count + ? where id = ?";
+
+    private final Map<SharedSessionContractImplementor, Map<Long, Long>> deltas = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Product product) {
+            add(event.getSession(), categoryId(product.getCategory()), 1);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Product) {
+            Object category = event.getDeletedState()[event.getPersister().getPropertyIndex("category")];
+            add(event.getSession(), categoryId(category), -1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Product) || event.getOldState() == null) {
+            return;
+        }
+        int index = event.getPersister().getPropertyIndex("category");
+        Long oldCategoryId = categoryId(event.getOldState()[index]);
+        Long newCategoryId = categoryId(event.getState()[index]);
+        if (oldCategoryId != null && !oldCategoryId.equals(newCategoryId)) {
+            add(event.getSession(), oldCategoryId, -1);
+            add(event.getSession(), newCategoryId, 1);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void add(EventSource session, Long categoryId, long delta) {
+        if (categoryId == null) {
+            return;
+        }
+        deltas.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::apply);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> evict(s));
+            return new HashMap<>();
+        }).merge(categoryId, delta, Long::sum);
+    }
+
+    private void apply(SessionImplementor session) {
+        Map<Long, Long> sessionDeltas = deltas.get(session);
+        if (sessionDeltas == null) {
+            return;
+        }
+        PreparedStatement statement = session.getJdbcCoordinator().getStatementPreparer().prepareStatement(UPDATE_COUNT);
+        try {
+            for (Map.Entry<Long, Long> entry : sessionDeltas.entrySet()) {
+                if (entry.getValue() != 0) {
+                    statement.setLong(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                    session.getJdbcCoordinator().getResultSetReturn().executeUpdate(statement, UPDATE_COUNT);
+                }
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "Could not update product count", UPDATE_COUNT);
+        } finally {
+            session.getJdbcCoordinator().getLogicalConnection().getResourceRegistry().release(statement);
+            session.getJdbcCoordinator().afterStatementExecution();
+        }
+    }
+
+    private void evict(SharedSessionContractImplementor session) {
+        //product_count diubah lewat JDBC, hapus category terkait dari second-level cache
+        Map<Long, Long> sessionDeltas = deltas.remove(session);
+        if (sessionDeltas != null) {
+            sessionDeltas.keySet().forEach(id -> session.getFactory().getCache().evictEntityData(Category.class, id));
+        }
+    }
+
+    private Long categoryId(Object category) {
+        return category instanceof Category value ? value.getId() : null;
+    }
+}
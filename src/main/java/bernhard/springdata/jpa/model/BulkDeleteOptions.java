@@ -0,0 +1,27 @@
+package bernhard.springdata.jpa.model;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Options for {@link bernhard.springdata.jpa.service.ProductBulkDeleteService}. Unset values
+ * fall back to {@code app.bulk-delete.*}.
+ *
+ * @param chunkSize       rows deleted per transaction
+ * @param pause           sleep between chunks, gives replicas and other writers room
+ * @param lifecycleEvents load and remove entities through the EntityManager so Hibernate
+ *                        event listeners run; slower, only for deletes that need them
+ * @param progress        called after every committed chunk
+ */
+@Builder
+public record BulkDeleteOptions(Integer chunkSize,
+                                Duration pause,
+                                boolean lifecycleEvents,
+                                Consumer<BulkDeleteProgress> progress) {
+
+    public static BulkDeleteOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,6 @@
+package bernhard.springdata.jpa.model;
+
+import java.util.List;
+
+public record BulkDeleteProgress(int chunk, List<Long> deletedIds, long totalDeleted) {
+}
@@ -0,0 +1,4 @@
+package bernhard.springdata.jpa.model;
+
+public record CacheStatistics(String region, long hitCount, long missCount, long putCount) {
+}
@@ -0,0 +1,18 @@
+package bernhard.springdata.jpa.model;
+
+import bernhard.springdata.jpa.entity.Product;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data for one category page. A part that timed out or failed is {@code null} and its name is
+ * listed in {@code missing}.
+ */
+public record CategoryDashboard(Long productCount,
+                                Page<Product> products,
+                                Boolean productExists,
+                                List<SimpleProduct> matches,
+                                Set<String> missing) {
+}
@@ -0,0 +1,9 @@
+package bernhard.springdata.jpa.model;
+
+public record CategoryProductSummary(Long categoryId,
+                                     String name,
+                                     Long productCount,
+                                     Long minPrice,
+                                     Long maxPrice,
+                                     Double averagePrice) {
+}
@@ -0,0 +1,5 @@
+package bernhard.springdata.jpa.model;
+
+public enum ChangeType {
+    CREATED, UPDATED, DELETED
+}
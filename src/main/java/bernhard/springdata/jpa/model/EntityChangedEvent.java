@@ -0,0 +1,14 @@
+package bernhard.springdata.jpa.model;
+
+import java.time.Instant;
+
+/**
+ * Published by {@link bernhard.springdata.jpa.service.OutboxRelay} for every committed change of
+ * a Product or Category. Delivery is at-least-once, so listeners must be idempotent; reload the
+ * entity by {@code aggregateId} when the current state is needed.
+ *
+ * @param id            outbox id, increases with insertion order
+ * @param aggregateType entity name, "Product" or "Category"
+ */
+public record EntityChangedEvent(long id, String aggregateType, long aggregateId, ChangeType type, Instant createdAt) {
+}
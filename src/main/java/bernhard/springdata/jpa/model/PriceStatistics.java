@@ -0,0 +1,5 @@
+package bernhard.springdata.jpa.model;
+
+public record PriceStatistics(Long categoryId, long productCount, long sumPrice, long minPrice, long maxPrice,
+                              double averagePrice) {
+}
@@ -0,0 +1,35 @@
+package bernhard.springdata.jpa.model;
+
+import lombok.Builder;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+
+/**
+ * Typed product filter for {@link bernhard.springdata.jpa.repository.ProductFilterRepository}.
+ * Every criterion is optional and criteria are combined with AND; {@code nameOrCategoryNameLike}
+ * matches the product name or the category name. {@code position} is the keyset of the last
+ * row already read, as returned by {@code Window.positionAt}; leave it empty for the first page.
+ */
+@Builder(toBuilder = true)
+public record ProductFilter(String name,
+                            String nameLike,
+                            String nameOrCategoryNameLike,
+                            String categoryName,
+                            Long minPrice,
+                            Long maxPrice,
+                            Collection<Long> categoryIds,
+                            Sort sort,
+                            KeysetScrollPosition position,
+                            int limit) {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    public ProductFilter {
+        sort = sort == null ? Sort.by("id") : sort;
+        position = position == null ? ScrollPosition.keyset() : position;
+        limit = limit <= 0 ? DEFAULT_LIMIT : limit;
+    }
+}
@@ -0,0 +1,8 @@
+package bernhard.springdata.jpa.model;
+
+/**
+ * One product for {@code ProductUpsertService}, identified by name. The category is referenced
+ * by name as well and resolved per batch.
+ */
+public record ProductUpsert(String name, Long price, String categoryName) {
+}
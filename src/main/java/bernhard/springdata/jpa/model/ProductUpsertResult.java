@@ -0,0 +1,11 @@
+package bernhard.springdata.jpa.model;
+
+import java.util.List;
+
+/**
+ * @param inserted products created by this batch
+ * @param updated  existing products overwritten by this batch
+ * @param rejected names of products not written because their category does not exist
+ */
+public record ProductUpsertResult(int batch, int inserted, int updated, List<String> rejected) {
+}
@@ -0,0 +1,8 @@
+package bernhard.springdata.jpa.model;
+
+import bernhard.springdata.jpa.entity.Product;
+
+import java.util.List;
+
+public record ProductWindow(List<Product> content, String nextToken, boolean hasNext) {
+}
@@ -0,0 +1,11 @@
+package bernhard.springdata.jpa.model;
+
+import java.time.Duration;
+
+/**
+ * @param processed     products in committed batches
+ * @param failedBatches batches whose processor threw, left leased until the lease expires
+ * @param lostBatches   batches rolled back because the lease expired and was claimed by another worker
+ */
+public record ProductWorkResult(long processed, int batches, int failedBatches, int lostBatches, Duration elapsed) {
+}
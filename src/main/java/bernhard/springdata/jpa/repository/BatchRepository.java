@@ -0,0 +1,13 @@
+package bernhard.springdata.jpa.repository;
+
+import java.util.List;
+
+public interface BatchRepository<T> {
+
+    /**
+     * Persists new entities in JDBC batches of {@code hibernate.jdbc.batch_size}, flushing and
+     * clearing the persistence context after every batch so memory stays flat for large loads.
+     * Only for new entities; entities managed before the call are detached as well.
+     */
+    <S extends T> List<S> saveAllBatched(Iterable<S> entities);
+}
@@ -1,16 +1,56 @@
 package bernhard.springdata.jpa.repository;
 
+import bernhard.springdata.jpa.config.CacheConfiguration;
 import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.model.CategoryProductSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+@Transactional(readOnly = true)
+public interface CategoryRepository extends JpaRepository<Category, Long>, BatchRepository<Category> {
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConfiguration.CATEGORY_QUERY_REGION)
+    })
     Optional<Category> findFirstByNameEquals(String name);
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConfiguration.CATEGORY_QUERY_REGION)
+    })
     List<Category> findAllByNameLike(String name);
+
+    @Query("select coalesce(sum(c.productCount), 0) from Category c where c.name = :name")
+    long sumProductCountByName(@Param("name") String name);
+
+    @Query("select c.id from Category c order by c.id")
+    List<Long> findAllIds();
+
+    //satu query: categories di-join fetch dengan products, pengganti N+1 saat getProducts()
+    @EntityGraph(attributePaths = "products")
+    @Query("select c from Category c where c.id in :ids")
+    List<Category> findAllWithProductsByIdIn(@Param("ids") Collection<Long> ids);
+
+    //satu query, tanpa memuat entity product sama sekali
+    @Query("""
+            select new bernhard.springdata.jpa.model.CategoryProductSummary(
+                c.id, c.name, count(p), min(p.price), max(p.price), avg(p.price))
+            from Category c left join c.products p
+            where c.id in :ids
+            group by c.id, c.name
+            """)
+    List<CategoryProductSummary> findProductSummaryByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,18 @@
+package bernhard.springdata.jpa.repository;
+
+import bernhard.springdata.jpa.entity.Product;
+
+/**
+ * Replaces the batch deletes inherited from {@code JpaRepository}, which run a bare
+ * {@code DELETE} and bypass the Hibernate listeners. These also decrement
+ * {@code categories.product_count} and write a DELETED outbox event per product, in the same
+ * transaction, like {@link ProductRepository#deleteProductUsingName}.
+ */
+public interface ProductBatchDeleteRepository {
+
+    void deleteAllInBatch(Iterable<Product> entities);
+
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    void deleteAllInBatch();
+}
@@ -0,0 +1,83 @@
+package bernhard.springdata.jpa.repository;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ChangeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ProductBatchDeleteRepositoryImpl implements ProductBatchDeleteRepository {
+
+    //batas IN list per statement, sama dengan chunk ProductBulkDeleteService
+    private static final int CHUNK_SIZE = 1_000;
+
+    private static final String INSERT_EVENTS = """
+            insert into outbox_events (aggregate_type, aggregate_id, event_type)
+            select 'Product', p.id, :type from products p where p.id in (:ids)
+            """;
+
+    private static final String DECREMENT_COUNT = """
+            update categories c
+            set c.product_count = c.product_count - (
+                select count(*) from products p where p.category_id = c.id and p.id in (:ids)
+            )
+            where c.id in (select p.category_id from products p where p.id in (:ids))
+            """;
+
+    private static final String DELETE_ROWS = "delete from products where id in (:ids)";
+
+    private static final String INSERT_ALL_EVENTS = """
+            insert into outbox_events (aggregate_type, aggregate_id, event_type)
+            select 'Product', p.id, :type from products p
+            """;
+
+    private static final String RESET_COUNT = "update categories set product_count = 0 where product_count <> 0";
+
+    private static final String DELETE_ALL_ROWS = "delete from products";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void deleteAllInBatch(Iterable<Product> entities) {
+        List<Long> ids = new ArrayList<>();
+        entities.forEach(product -> ids.add(product.getId()));
+        deleteAllByIdInBatch(ids);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> values = new ArrayList<>();
+        ids.forEach(values::add);
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = values.subList(from, Math.min(from + CHUNK_SIZE, values.size()));
+            //urutan sama dengan deleteProductUsingName: event dan counter dulu, selagi barisnya masih ada
+            execute(INSERT_EVENTS, "outbox_events", Map.of("ids", chunk, "type", ChangeType.DELETED.name()));
+            execute(DECREMENT_COUNT, "categories", Map.of("ids", chunk));
+            execute(DELETE_ROWS, "products", Map.of("ids", chunk));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllInBatch() {
+        execute(INSERT_ALL_EVENTS, "outbox_events", Map.of("type", ChangeType.DELETED.name()));
+        execute(RESET_COUNT, "categories", Map.of());
+        execute(DELETE_ALL_ROWS, "products", Map.of());
+    }
+
+    //query space: hanya region yang disentuh statement yang di-invalidate, bukan seluruh second-level cache
+    private void execute(String sql, String querySpace, Map<String, Object> parameters) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(querySpace);
+        parameters.forEach(query::setParameter);
+        query.executeUpdate();
+    }
+}
@@ -0,0 +1,257 @@
+package bernhard.springdata.jpa.repository;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Compiles a {@link ProductFilter} into JPQL plus parameter binders, once per filter shape.
+ * The shape is which criteria are set, the sort orders and whether a keyset position is
+ * given; values are never part of it, so the number of shapes stays small and every shape maps
+ * to one JPQL string. Hibernate caches the parsed query plan by that string
+ * ({@code hibernate.query.plan_cache_max_size}), which a Criteria-built Specification never
+ * hits. The category IN list is one collection parameter, padded by
+ * {@code hibernate.query.in_clause_parameter_padding} so it does not multiply SQL variants.
+ */
+@Component
+public class ProductFilterQueryCompiler implements MeterBinder {
+
+    private static final Map<String, Function<Product, Object>> SORT_PROPERTIES = Map.of(
+            "id", Product::getId,
+            "name", Product::getName,
+            "price", Product::getPrice
+    );
+
+    private static final Set<String> NOT_NULL_PROPERTIES = Set.of("id");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<FilterShape, CompiledFilter> compiled = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public CompiledFilter compile(ProductFilter filter) {
+        if (filter.position().scrollsBackward()) {
+            throw new IllegalArgumentException("Only forward keyset positions are supported");
+        }
+        FilterShape shape = FilterShape.of(filter);
+        CompiledFilter result = compiled.get(shape);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        return compiled.computeIfAbsent(shape, this::compile);
+    }
+
+    private CompiledFilter compile(FilterShape shape) {
+        List<String> predicates = new ArrayList<>();
+        List<ParameterBinder> binders = new ArrayList<>();
+
+        if (shape.name()) {
+            predicates.add("p.name = :name");
+            binders.add((query, filter) -> query.setParameter("name", filter.name()));
+        }
+        if (shape.nameLike()) {
+            predicates.add("p.name like :nameLike");
+            binders.add((query, filter) -> query.setParameter("nameLike", filter.nameLike()));
+        }
+        if (shape.nameOrCategoryNameLike()) {
+            predicates.add("(p.name like :nameOrCategoryNameLike or p.category.name like :nameOrCategoryNameLike)");
+            binders.add((query, filter) -> query.setParameter("nameOrCategoryNameLike", filter.nameOrCategoryNameLike()));
+        }
+        if (shape.categoryName()) {
+            predicates.add("p.category.name = :categoryName");
+            binders.add((query, filter) -> query.setParameter("categoryName", filter.categoryName()));
+        }
+        if (shape.minPrice()) {
+            predicates.add("p.price >= :minPrice");
+            binders.add((query, filter) -> query.setParameter("minPrice", filter.minPrice()));
+        }
+        if (shape.maxPrice()) {
+            predicates.add("p.price <= :maxPrice");
+            binders.add((query, filter) -> query.setParameter("maxPrice", filter.maxPrice()));
+        }
+        if (shape.categories()) {
+            predicates.add("p.category.id in :categoryIds");
+            binders.add((query, filter) -> query.setParameter("categoryIds", filter.categoryIds()));
+        }
+        if (shape.keyset()) {
+            predicates.add(keysetPredicate(shape.orders(), shape.nullKeys()));
+            for (int i = 0; i < shape.orders().size(); i++) {
+                if (shape.nullKeys().get(i)) {
+                    continue;
+                }
+                String property = shape.orders().get(i).getProperty();
+                String parameter = "key" + i;
+                binders.add((query, filter) -> query.setParameter(parameter, filter.position().getKeys().get(property)));
+            }
+        }
+
+        StringBuilder jpql = new StringBuilder("select p from Product p");
+        if (!predicates.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+        jpql.append(" order by ");
+        for (int i = 0; i < shape.orders().size(); i++) {
+            Sort.Order order = shape.orders().get(i);
+            jpql.append(i == 0 ? "" : ", ").append("p.").append(order.getProperty())
+                    .append(order.isAscending() ? " asc" : " desc");
+        }
+        return new CompiledFilter(jpql.toString(), List.copyOf(binders), shape.orders());
+    }
+
+    //(a > :key0) or (a = :key0 and b > :key1) or ...
+    //NULL dianggap nilai terkecil, sama dengan urutan default MySQL (dan H2): pertama di asc, terakhir di desc
+    private String keysetPredicate(List<Sort.Order> orders, List<Boolean> nullKeys) {
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            String after = after(order, nullKeys.get(i), i);
+            if (after == null) {
+                continue;
+            }
+            List<String> terms = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                String property = "p." + orders.get(j).getProperty();
+                terms.add(nullKeys.get(j) ? property + " is null" : property + " = :key" + j);
+            }
+            terms.add(after);
+            alternatives.add("(" + String.join(" and ", terms) + ")");
+        }
+        //id tidak pernah null dan selalu ada di orders, jadi minimal satu alternatif tersisa
+        return "(" + String.join(" or ", alternatives) + ")";
+    }
+
+    //null = tidak ada nilai sesudah key pada urutan ini (desc setelah NULL)
+    private static String after(Sort.Order order, boolean nullKey, int index) {
+        String property = "p." + order.getProperty();
+        if (order.isAscending()) {
+            return nullKey ? property + " is not null" : property + " > :key" + index;
+        }
+        if (nullKey) {
+            return null;
+        }
+        return NOT_NULL_PROPERTIES.contains(order.getProperty())
+                ? property + " < :key" + index
+                : "(" + property + " < :key" + index + " or " + property + " is null)";
+    }
+
+    public int getCompiledCount() {
+        return compiled.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("product.filter.plans.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Product filter lookups served by an already compiled shape")
+                .register(registry);
+        FunctionCounter.builder("product.filter.plans.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Product filter lookups that compiled a new shape")
+                .register(registry);
+        Gauge.builder("product.filter.plans.size", compiled, Map::size)
+                .description("Compiled product filter shapes")
+                .register(registry);
+
+        //hibernate.cache.query.plan (hit/miss) sudah dari hibernate-micrometer, di sini rasionya
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Gauge.builder("hibernate.cache.query.plan.hit.ratio", statistics, ProductFilterQueryCompiler::planHitRatio)
+                .description("Share of HQL/JPQL interpretations served from Hibernate's query plan cache")
+                .register(registry);
+    }
+
+    private static double planHitRatio(Statistics statistics) {
+        long hit = statistics.getQueryPlanCacheHitCount();
+        long total = hit + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @FunctionalInterface
+    public interface ParameterBinder {
+        void bind(TypedQuery<?> query, ProductFilter filter);
+    }
+
+    public record CompiledFilter(String jpql, List<ParameterBinder> binders, List<Sort.Order> orders) {
+
+        public void bind(TypedQuery<?> query, ProductFilter filter) {
+            binders.forEach(binder -> binder.bind(query, filter));
+        }
+
+        public ScrollPosition positionOf(Product product) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            orders.forEach(order -> keys.put(order.getProperty(), SORT_PROPERTIES.get(order.getProperty()).apply(product)));
+            return ScrollPosition.forward(keys);
+        }
+    }
+
+    /**
+     * @param nullKeys per order, whether the keyset position holds NULL for it; part of the shape
+     *                 because a NULL key needs {@code is null} instead of a comparison
+     */
+    record FilterShape(boolean name, boolean nameLike, boolean nameOrCategoryNameLike, boolean categoryName,
+                       boolean minPrice, boolean maxPrice, boolean categories,
+                       List<Sort.Order> orders, boolean keyset, List<Boolean> nullKeys) {
+
+        static FilterShape of(ProductFilter filter) {
+            List<Sort.Order> orders = new ArrayList<>();
+            for (Sort.Order order : filter.sort()) {
+                if (!SORT_PROPERTIES.containsKey(order.getProperty()) || order.isIgnoreCase()) {
+                    throw new IllegalArgumentException("Unsupported sort: " + order);
+                }
+                orders.add(Sort.Order.by(order.getProperty()).with(order.getDirection()));
+            }
+            //id unik, jadi urutan selalu stabil walaupun sort key sama
+            if (filter.sort().getOrderFor("id") == null) {
+                orders.add(Sort.Order.asc("id"));
+            }
+            boolean keyset = !filter.position().isInitial();
+            List<Boolean> nullKeys = new ArrayList<>();
+            if (keyset) {
+                Map<String, Object> keys = filter.position().getKeys();
+                for (Sort.Order order : orders) {
+                    if (!keys.containsKey(order.getProperty())) {
+                        throw new IllegalArgumentException("Keyset position has no value for sort property " + order.getProperty());
+                    }
+                    nullKeys.add(keys.get(order.getProperty()) == null);
+                }
+            }
+            return new FilterShape(filter.name() != null, filter.nameLike() != null,
+                    filter.nameOrCategoryNameLike() != null, filter.categoryName() != null, filter.minPrice() != null,
+                    filter.maxPrice() != null, filter.categoryIds() != null, List.copyOf(orders),
+                    keyset, List.copyOf(nullKeys));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package bernhard.springdata.jpa.repository;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductFilter;
+import org.springframework.data.domain.Window;
+
+public interface ProductFilterRepository {
+
+    /**
+     * Returns one keyset page of products matching the filter. Filters with the same shape
+     * (which criteria are set, sort, first page or not) share one compiled query, see
+     * {@link ProductFilterQueryCompiler}.
+     */
+    Window<Product> findAllByFilter(ProductFilter filter);
+}
@@ -0,0 +1,40 @@
+package bernhard.springdata.jpa.repository;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductFilterQueryCompiler productFilterQueryCompiler;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Product> findAllByFilter(ProductFilter filter) {
+        if (filter.categoryIds() != null && filter.categoryIds().isEmpty()) {
+            return Window.from(List.of(), index -> filter.position());
+        }
+
+        ProductFilterQueryCompiler.CompiledFilter compiled = productFilterQueryCompiler.compile(filter);
+        TypedQuery<Product> query = entityManager.createQuery(compiled.jpql(), Product.class);
+        compiled.bind(query, filter);
+        //satu baris lebih untuk tahu masih ada halaman berikutnya
+        query.setMaxResults(filter.limit() + 1);
+
+        List<Product> products = query.getResultList();
+        boolean hasNext = products.size() > filter.limit();
+        List<Product> content = hasNext ? products.subList(0, filter.limit()) : products;
+        return Window.from(content, index -> compiled.positionOf(content.get(index)), hasNext);
+    }
+}
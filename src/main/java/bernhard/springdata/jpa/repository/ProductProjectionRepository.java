@@ -0,0 +1,13 @@
+package bernhard.springdata.jpa.repository;
+
+import java.util.List;
+
+public interface ProductProjectionRepository {
+
+    /**
+     * Same result as {@link ProductRepository#findAllByNameLike(String, Class)} for record
+     * projections, but selects only the record's columns and maps them without entity hydration.
+     * See {@link ProjectionQueryEngine}.
+     */
+    <R extends Record> List<R> findAllProjectedByNameLike(String name, Class<R> type);
+}
@@ -0,0 +1,21 @@
+package bernhard.springdata.jpa.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    private static final String BY_NAME_LIKE = "from Product p where p.name like :name";
+
+    @Autowired
+    private ProjectionQueryEngine projectionQueryEngine;
+
+    @Override
+    @Transactional(readOnly = true)
+    public <R extends Record> List<R> findAllProjectedByNameLike(String name, Class<R> type) {
+        return projectionQueryEngine.list(BY_NAME_LIKE, type, Map.of("name", name));
+    }
+}
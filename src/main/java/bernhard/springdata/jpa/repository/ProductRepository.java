@@ -1,29 +1,43 @@
 package bernhard.springdata.jpa.repository;
 
+import bernhard.springdata.jpa.config.Workload;
+import bernhard.springdata.jpa.config.WorkloadClass;
 import bernhard.springdata.jpa.entity.Category;
 import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ChangeType;
 import bernhard.springdata.jpa.model.ProductPrice;
 import bernhard.springdata.jpa.model.SimpleProduct;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+@Transactional(readOnly = true)
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        BatchRepository<Product>, ProductProjectionRepository, ProductFilterRepository, ProductBatchDeleteRepository {
 
     List<Product> findAllByCategory_Name(String name);
 
@@ -31,8 +45,21 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     Page<Product> findAllByCategory_Name(String name, Pageable pageable);
 
+    //category ikut di-join fetch, pakai kalau caller butuh product.getCategory()
+    @EntityGraph("Product.category")
+    List<Product> findAllWithCategoryByCategory_Name(String name);
+
+    @EntityGraph("Product.category")
+    Page<Product> findAllWithCategoryByCategory_Name(String name, Pageable pageable);
+
     Long countByCategory_Name(String name);
 
+    //tanpa count query, total diambil dari categories.product_count (lihat ProductCountService)
+    List<Product> findByCategory_Name(String name, Pageable pageable);
+
+    @EntityGraph("Product.category")
+    List<Product> findWithCategoryByCategory_Name(String name, Pageable pageable);
+
     boolean existsByName(String name);
 
     @Transactional
@@ -43,33 +70,163 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     List<Product> searchProductUsingName(@Param("name") String name, Pageable pageable);
 
+    @EntityGraph("Product.category")
+    @Query("select p from Product p where p.name = :name")
+    List<Product> searchProductWithCategoryUsingName(@Param("name") String name);
+
 //    @Query(value = "select p from Product p where p.name like :name or p.category.name like :name")
 //    List<Product> searchProduct(@Param("name") String name);
 
 //    @Query(value = "select p from Product p where p.name like :name or p.category.name like :name")
 //    List<Product> searchProduct(@Param("name") String name, Pageable pageable);
 
+    //LIKE '%..%' scan, di pool reporting supaya tidak menghabiskan koneksi OLTP
+    @Workload(WorkloadClass.REPORTING)
     @Query(
             value = "select p from Product p where p.name like :name or p.category.name like :name",
             countQuery =  "select count(p) from Product p where p.name like :name or p.category.name like :name"
     )
     Page<Product> searchProduct(@Param("name") String name, Pageable pageable);
 
+    @Workload(WorkloadClass.REPORTING)
+    @EntityGraph("Product.category")
+    @Query(
+            value = "select p from Product p where p.name like :name or p.category.name like :name",
+            countQuery =  "select count(p) from Product p where p.name like :name or p.category.name like :name"
+    )
+    Page<Product> searchProductWithCategory(@Param("name") String name, Pageable pageable);
+
+    //bulk delete tidak memicu event Hibernate, outbox dan product_count diisi dulu sebelum baris dihapus
+    @Transactional
+    default int deleteProductUsingName(String name) {
+        insertProductEventsUsingName(name, ChangeType.DELETED.name());
+        decrementProductCountUsingName(name);
+        return deleteProductRowsUsingName(name);
+    }
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update categories c
+            set c.product_count = c.product_count - (
+                select count(*) from products p where p.category_id = c.id and p.name = :name
+            )
+            where c.id in (select p.category_id from products p where p.name = :name)
+            """)
+    //hanya region categories yang di-invalidate, bukan seluruh second-level cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "categories"))
+    int decrementProductCountUsingName(@Param("name") String name);
+
+    @Transactional
     @Modifying
     @Query("delete from Product p where p.name = :name")
-    int deleteProductUsingName(@Param("name") String name);
+    int deleteProductRowsUsingName(@Param("name") String name);
+
+    //bulk update juga tidak memicu event Hibernate, outbox diisi sendiri
+    @Transactional
+    default int updateProductPriceToZero(Long id) {
+        int total = updateProductPriceToZeroRows(id);
+        if (total > 0) {
+            insertProductEvent(id, ChangeType.UPDATED.name());
+        }
+        return total;
+    }
+
+    @Transactional
+    @Modifying
+    //version ikut dinaikkan supaya transaksi lain yang memegang versi lama gagal optimistic check
+    @Query("update Product p set p.price = 0, p.version = p.version + 1 where p.id = :id")
+    int updateProductPriceToZeroRows(@Param("id") Long id);
 
+    @Transactional
     @Modifying
-    @Query("update Product p set p.price = 0 where p.id = :id")
-    int updateProductPriceToZero(@Param("id") Long id);
+    @Query(nativeQuery = true, value = """
+            insert into outbox_events (aggregate_type, aggregate_id, event_type)
+            select 'Product', p.id, :type from products p where p.name = :name
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "outbox_events"))
+    int insertProductEventsUsingName(@Param("name") String name, @Param("type") String type);
 
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "insert into outbox_events (aggregate_type, aggregate_id, event_type) values ('Product', :id, :type)")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "outbox_events"))
+    int insertProductEvent(@Param("id") Long id, @Param("type") String type);
+
+    //tanpa fetch size, Connector/J membaca seluruh result set ke memory dulu (butuh useCursorFetch=true)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Workload(WorkloadClass.REPORTING)
     Stream<Product> streamAllByCategory(Category category);
 
     Slice<Product> findAllByCategory(Category category, Pageable pageable);
 
+    //query method default-nya readOnly, locking read harus ke primary
+    @Transactional
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Product> findFirstById(Long id);
 
+    /**
+     * Claims up to {@code batchSize} products of a category that were not processed since
+     * {@code processedBefore} and are not leased by another worker, and leases them to
+     * {@code owner} for {@code lease}. Rows locked by a concurrent claim are skipped instead of
+     * waited for, so workers on several nodes never queue up behind each other. Finish the
+     * batch with {@link #completeProducts} before the lease expires; afterwards the rows can be
+     * claimed again by someone else.
+     */
+    @Transactional
+    default List<Long> claimProducts(Long categoryId, String owner, Instant processedBefore, Duration lease, int batchSize) {
+        Instant now = Instant.now();
+        List<Long> ids = findClaimableByCategoryId(categoryId, processedBefore, now, PageRequest.of(0, batchSize))
+                .stream()
+                .map(Product::getId)
+                .toList();
+        if (!ids.isEmpty()) {
+            updateLease(ids, owner, now.plus(lease));
+        }
+        return ids;
+    }
+
+    //lock timeout -2 = LockOptions.SKIP_LOCKED, MySQL 8: FOR UPDATE SKIP LOCKED
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+            select p from Product p
+            where p.category.id = :categoryId
+            and (p.processedAt is null or p.processedAt < :processedBefore)
+            and (p.leaseExpiresAt is null or p.leaseExpiresAt < :now)
+            order by p.id
+            """)
+    List<Product> findClaimableByCategoryId(@Param("categoryId") Long categoryId,
+                                            @Param("processedBefore") Instant processedBefore,
+                                            @Param("now") Instant now,
+                                            Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.leaseOwner = :owner, p.leaseExpiresAt = :until where p.id in :ids")
+    int updateLease(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("until") Instant until);
+
+    //hanya baris yang lease-nya masih milik owner, kurang dari ids.size() berarti lease sudah diambil worker lain
+    @Transactional
+    @Modifying
+    @Query("""
+            update Product p set p.processedAt = :processedAt, p.leaseOwner = null, p.leaseExpiresAt = null
+            where p.id in :ids and p.leaseOwner = :owner
+            """)
+    int completeProducts(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+                         @Param("processedAt") Instant processedAt);
+
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.leaseOwner = null, p.leaseExpiresAt = null where p.id in :ids and p.leaseOwner = :owner")
+    int releaseProducts(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
 //    List<SimpleProduct> findAllByNameLike(String name);
 
    <T> List<T> findAllByNameLike(String name, Class<T> tClass);
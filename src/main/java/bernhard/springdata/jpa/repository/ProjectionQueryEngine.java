@@ -0,0 +1,80 @@
+package bernhard.springdata.jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a JPQL query into a DTO record without loading entities. Each (query, record) pair is
+ * compiled once into a constructor expression selecting only the record's components, e.g.
+ * {@code from Product p where p.name like :name} with {@link bernhard.springdata.jpa.model.SimpleProduct}
+ * becomes {@code select new ...SimpleProduct(p.id, p.name) from Product p where p.name like :name}.
+ * Rows are mapped straight into the record: no entity instance, no persistence context entry and
+ * no dirty-check snapshot. Record component names must match attributes of the queried entity.
+ */
+@Component
+public class ProjectionQueryEngine {
+
+    private static final Pattern FROM = Pattern.compile("^\\s*from\\s+(\\w+)\\s+(?:as\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<CompiledKey, String> compiled = new ConcurrentHashMap<>();
+
+    public <R extends Record> List<R> list(String query, Class<R> type, Map<String, ?> parameters) {
+        TypedQuery<R> typedQuery = entityManager.createQuery(compile(query, type), type);
+        parameters.forEach(typedQuery::setParameter);
+        return typedQuery.getResultList();
+    }
+
+    String compile(String query, Class<? extends Record> type) {
+        return compiled.computeIfAbsent(new CompiledKey(query, type), key -> {
+            Matcher matcher = FROM.matcher(query);
+            if (!matcher.find()) {
+                throw new IllegalArgumentException("Query must start with 'from <Entity> <alias>': " + query);
+            }
+            EntityType<?> entity = findEntity(matcher.group(1));
+            String alias = matcher.group(2);
+
+            String columns = Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getName)
+                    .map(name -> {
+                        //gagal di sini lebih jelas daripada error constructor dari Hibernate
+                        if (entity.getAttributes().stream().map(Attribute::getName).noneMatch(name::equals)) {
+                            throw new IllegalArgumentException(entity.getName() + " has no attribute '" + name
+                                    + "' for " + type.getSimpleName());
+                        }
+                        return alias + "." + name;
+                    })
+                    .collect(Collectors.joining(", "));
+            return "select new " + type.getName() + "(" + columns + ") " + query.strip();
+        });
+    }
+
+    public int getCompiledCount() {
+        return compiled.size();
+    }
+
+    private EntityType<?> findEntity(String name) {
+        return entityManager.getMetamodel().getEntities().stream()
+                .filter(entity -> entity.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown entity " + name));
+    }
+
+    private record CompiledKey(String query, Class<?> type) {
+    }
+}
@@ -0,0 +1,38 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.config.CacheConfiguration;
+import bernhard.springdata.jpa.model.CacheStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class CacheStatisticsService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public List<CacheStatistics> findAll() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return List.of(
+                toCacheStatistics(CacheConfiguration.CATEGORY_REGION,
+                        statistics.getDomainDataRegionStatistics(CacheConfiguration.CATEGORY_REGION)),
+                toCacheStatistics(CacheConfiguration.CATEGORY_QUERY_REGION,
+                        statistics.getQueryRegionStatistics(CacheConfiguration.CATEGORY_QUERY_REGION))
+        );
+    }
+
+    private CacheStatistics toCacheStatistics(String region, CacheRegionStatistics statistics) {
+        //region query baru ada setelah query pertama dijalankan
+        if (statistics == null) {
+            return new CacheStatistics(region, 0, 0, 0);
+        }
+        return new CacheStatistics(region, statistics.getHitCount(), statistics.getMissCount(),
+                statistics.getPutCount());
+    }
+}
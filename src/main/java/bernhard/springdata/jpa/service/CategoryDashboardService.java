@@ -0,0 +1,53 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.CategoryDashboard;
+import bernhard.springdata.jpa.model.SimpleProduct;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads everything a category page needs with the four queries running concurrently, so the
+ * page waits for the slowest query instead of the sum of all four. See {@link FanOutQueryExecutor}.
+ */
+@Service
+public class CategoryDashboardService {
+
+    @Autowired
+    private FanOutQueryExecutor fanOutQueryExecutor;
+
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public CategoryDashboard load(String categoryName, Pageable pageable, String productName, String nameLike) {
+        FanOutQueryExecutor.FanOut fanOut = fanOutQueryExecutor.fanOut();
+
+        FanOutQueryExecutor.Call<Long> count = fanOut.submit("productCount",
+                () -> productCountService.countByCategoryName(categoryName));
+        //transaksi selesai di thread fan-out, category harus sudah di-load (LAZY)
+        FanOutQueryExecutor.Call<Page<Product>> products = fanOut.submit("products",
+                () -> productCountService.findAllWithCategoryByCategoryName(categoryName, pageable));
+        FanOutQueryExecutor.Call<Boolean> exists = fanOut.submit("productExists",
+                () -> productRepository.existsByName(productName));
+        FanOutQueryExecutor.Call<List<SimpleProduct>> matches = fanOut.submit("matches",
+                () -> productRepository.findAllProjectedByNameLike(nameLike, SimpleProduct.class));
+
+        Set<String> missing = fanOut.await().keySet();
+        return new CategoryDashboard(
+                count.get().orElse(null),
+                products.get().orElse(null),
+                exists.get().orElse(null),
+                matches.get().orElse(null),
+                missing
+        );
+    }
+}
@@ -0,0 +1,172 @@
+package bernhard.springdata.jpa.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only queries concurrently, each in its own read-only transaction and
+ * therefore on its own connection. At most {@code app.fan-out.max-connections} queries run at
+ * once, whatever the number of callers, so a busy page cannot drain the Hikari pool. Each call
+ * has its own timeout and all calls of one {@link FanOut} share a deadline; a call that misses
+ * either is cancelled and reported as missing instead of failing the whole fan-out. Calls run
+ * on other threads and do not see uncommitted changes of the caller's transaction.
+ */
+@Slf4j
+@Component
+public class FanOutQueryExecutor {
+
+    @Autowired
+    private PlatformTransactionManager platformTransactionManager;
+
+    @Value("${app.fan-out.max-connections:4}")
+    private int maxConnections;
+
+    @Value("${app.fan-out.call-timeout:2s}")
+    private Duration defaultCallTimeout;
+
+    @Value("${app.fan-out.deadline:3s}")
+    private Duration defaultDeadline;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger sequence = new AtomicInteger();
+        //jumlah thread = batas koneksi, query berikutnya antre di sini, bukan di pool Hikari
+        executor = Executors.newFixedThreadPool(maxConnections, runnable -> {
+            Thread thread = new Thread(runnable, "fan-out-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public FanOut fanOut() {
+        return fanOut(defaultCallTimeout, defaultDeadline);
+    }
+
+    public FanOut fanOut(Duration callTimeout, Duration deadline) {
+        return new FanOut(callTimeout, System.nanoTime() + deadline.toNanos());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class FanOut {
+
+        private final Duration callTimeout;
+
+        private final long deadline;
+
+        private final TransactionTemplate transactionTemplate;
+
+        private final List<Call<?>> calls = new ArrayList<>();
+
+        private FanOut(Duration callTimeout, long deadline) {
+            this.callTimeout = callTimeout;
+            this.deadline = deadline;
+            this.transactionTemplate = new TransactionTemplate(platformTransactionManager);
+            this.transactionTemplate.setReadOnly(true);
+            //timeout transaksi diteruskan ke JDBC query timeout, jadi query yang dibatalkan juga berhenti di database
+            this.transactionTemplate.setTimeout((int) Math.max(1, (callTimeout.toMillis() + 999) / 1000));
+        }
+
+        public <T> Call<T> submit(String name, Supplier<T> query) {
+            Call<T> call = new Call<>(name, Math.min(System.nanoTime() + callTimeout.toNanos(), deadline));
+            call.future = executor.submit(() -> {
+                //sudah lewat batas waktu selama antre, tidak perlu ambil koneksi
+                if (System.nanoTime() - call.deadline >= 0) {
+                    throw new TimeoutException(name + " expired while queued");
+                }
+                return transactionTemplate.execute(status -> query.get());
+            });
+            calls.add(call);
+            return call;
+        }
+
+        /**
+         * Waits for every call until its own timeout or the shared deadline, whichever comes
+         * first, and returns the calls without a result mapped to the reason.
+         */
+        public Map<String, Throwable> await() {
+            Map<String, Throwable> missing = new LinkedHashMap<>();
+            for (Call<?> call : calls) {
+                call.await();
+                if (call.failure != null) {
+                    missing.put(call.name, call.failure);
+                }
+            }
+            if (!missing.isEmpty()) {
+                log.warn("Fan-out returned partial result, missing {}", missing.keySet());
+            }
+            return missing;
+        }
+    }
+
+    public static final class Call<T> {
+
+        private final String name;
+
+        private final long deadline;
+
+        private Future<T> future;
+
+        private T value;
+
+        private Throwable failure;
+
+        private Call(String name, long deadline) {
+            this.name = name;
+            this.deadline = deadline;
+        }
+
+        private void await() {
+            try {
+                value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failure = e;
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                failure = e;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Optional<T> get() {
+            return Optional.ofNullable(value);
+        }
+
+        public boolean isMissing() {
+            return failure != null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package bernhard.springdata.jpa.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a callback in its own transaction and runs it again when the commit fails an
+ * optimistic {@code @Version} check, with exponential backoff and jitter between attempts.
+ * The whole transaction is retried, so it has to be called outside any transaction.
+ */
+@Component
+public class OptimisticLockRetryTemplate {
+
+    @Autowired
+    private PlatformTransactionManager platformTransactionManager;
+
+    @Value("${app.retry.optimistic.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.retry.optimistic.initial-backoff:5ms}")
+    private Duration initialBackoff;
+
+    @Value("${app.retry.optimistic.max-backoff:200ms}")
+    private Duration maxBackoff;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(platformTransactionManager);
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Optimistic retry must start outside a transaction");
+        }
+
+        long backoff = initialBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                backoff = Math.min(backoff * 2, maxBackoff.toMillis());
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.model.ChangeType;
+import bernhard.springdata.jpa.model.EntityChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains {@code outbox_events} in id order, in batches of {@code app.outbox.batch-size}, and
+ * publishes every row as an {@link EntityChangedEvent} on the application event bus
+ * ({@code @EventListener}). Published rows are marked with {@code published_at} afterwards, which
+ * is the checkpoint: a crash or a failing listener leaves the rest of the batch unmarked, so it is
+ * delivered again (at-least-once). Marking instead of remembering the last id also covers rows
+ * whose transaction commits after a row with a higher id.
+ * <p>
+ * Every batch is claimed with {@code FOR UPDATE SKIP LOCKED} and marked in the same transaction,
+ * so relays on several nodes split the rows between them and only one node publishes a given row.
+ * Across nodes the events are then no longer strictly in id order. Consumers that every node needs, such as
+ * PriceStatisticsService, read the table themselves, so published rows are kept for
+ * {@code app.outbox.retention} before they are deleted.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    static final String SELECT_EVENTS = "select id, aggregate_type, aggregate_id, event_type, created_at from outbox_events";
+
+    static final RowMapper<EntityChangedEvent> EVENT_MAPPER = (resultSet, rowNum) -> new EntityChangedEvent(
+            resultSet.getLong("id"),
+            resultSet.getString("aggregate_type"),
+            resultSet.getLong("aggregate_id"),
+            ChangeType.valueOf(resultSet.getString("event_type")),
+            resultSet.getTimestamp("created_at").toInstant()
+    );
+
+    //SKIP LOCKED: batch yang sedang dikirim node lain dilewati, bukan ditunggu lalu dikirim ulang
+    private static final String SELECT_BATCH = SELECT_EVENTS + " where published_at is null order by id limit ? for update skip locked";
+
+    private static final String MARK_PUBLISHED = "update outbox_events set published_at = current_timestamp(6) where id in (:ids)";
+
+    private static final String DELETE_PUBLISHED = "delete from outbox_events where published_at < ? limit ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${app.outbox.poll-interval:500ms}")
+    private Duration pollInterval;
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.retention:10m}")
+    private Duration retention;
+
+    private final AtomicLong relayed = new AtomicLong();
+
+    private final ReentrantLock relayLock = new ReentrantLock();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::relayQuietly,
+                pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::purgeQuietly,
+                retention.toMillis(), retention.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes everything currently in the outbox and returns the number of events published.
+     */
+    public long relay() {
+        relayLock.lock();
+        try {
+            long total = 0;
+            while (true) {
+                RelayedBatch batch = transactionOperations.execute(status -> relayBatch());
+                relayed.addAndGet(batch.published());
+                total += batch.published();
+                if (batch.failure() != null) {
+                    throw batch.failure();
+                }
+                if (batch.selected() < batchSize) {
+                    return total;
+                }
+            }
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    //claim, kirim dan checkpoint dalam satu transaksi: lock baris baru lepas setelah published_at terisi
+    private RelayedBatch relayBatch() {
+        List<EntityChangedEvent> batch = jdbcTemplate.query(SELECT_BATCH, EVENT_MAPPER, batchSize);
+        List<Long> published = new ArrayList<>(batch.size());
+        RuntimeException failure = null;
+        try {
+            for (EntityChangedEvent event : batch) {
+                applicationEventPublisher.publishEvent(event);
+                published.add(event.id());
+            }
+        } catch (RuntimeException e) {
+            //yang sudah terkirim tetap di-checkpoint walaupun listener gagal di tengah batch
+            failure = e;
+        }
+        if (!published.isEmpty()) {
+            namedParameterJdbcTemplate.update(MARK_PUBLISHED, Map.of("ids", published));
+        }
+        return new RelayedBatch(batch.size(), published.size(), failure);
+    }
+
+    /**
+     * Deletes rows published more than {@code app.outbox.retention} ago and returns how many.
+     */
+    public long purge() {
+        Timestamp before = Timestamp.from(Instant.now().minus(retention));
+        long total = 0;
+        while (true) {
+            //per batch supaya tidak mengunci banyak baris sekaligus
+            int deleted = jdbcTemplate.update(DELETE_PUBLISHED, before, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    public long getRelayedCount() {
+        return relayed.get();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            //baris yang belum terkirim tetap di outbox, dicoba lagi di poll berikutnya
+            log.error("Failed to relay outbox events", e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.error("Failed to purge published outbox events", e);
+        }
+    }
+
+    private record RelayedBatch(int selected, int published, RuntimeException failure) {
+    }
+}
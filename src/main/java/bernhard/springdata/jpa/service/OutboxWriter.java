@@ -0,0 +1,34 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.listener.OutboxEventListener;
+import bernhard.springdata.jpa.model.ChangeType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Outbox records for writes done with plain JDBC, which Hibernate event listeners never see.
+ * Must join the transaction of the write it describes.
+ */
+@Component
+public class OutboxWriter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Collection<Long> ids, ChangeType type) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(OutboxEventListener.INSERT_EVENT, ids, ids.size(), (statement, id) -> {
+            statement.setString(1, aggregateType);
+            statement.setLong(2, id);
+            statement.setString(3, type.name());
+        });
+    }
+}
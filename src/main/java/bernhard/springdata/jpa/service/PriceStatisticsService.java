@@ -0,0 +1,364 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.config.WorkloadClass;
+import bernhard.springdata.jpa.config.WorkloadContext;
+import bernhard.springdata.jpa.model.EntityChangedEvent;
+import bernhard.springdata.jpa.model.PriceStatistics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Count, sum, min, max and average of {@code Product.price} per category, kept in memory and
+ * read in constant time instead of aggregating {@code products} on every dashboard refresh.
+ * Every node reads the product changes from {@code outbox_events} itself, after its own cursor,
+ * instead of listening to OutboxRelay, which hands each row to one node only; the outbox also
+ * covers bulk queries such as {@code updateProductPriceToZero}. The changed rows are read back in
+ * one query per batch and applied as a delta against the last known price of each product, so a
+ * repeated change does nothing. Outbox ids are assigned on insert, not on commit, so ids the
+ * cursor skipped are read again until they show up or {@code app.price-statistics.gap-timeout}
+ * passes. A full rebuild every {@code app.price-statistics.rebuild-interval} corrects drift, e.g.
+ * from rows changed outside the application.
+ */
+@Slf4j
+@Service
+public class PriceStatisticsService {
+
+    private static final String SELECT_ALL = "select id, category_id, price from products";
+
+    private static final String SELECT_PRODUCTS = "select id, category_id, price from products where id in (:ids)";
+
+    private static final String SELECT_EXTREMES =
+            "select category_id, min(price) as min_price, max(price) as max_price from products "
+                    + "where category_id in (:ids) and price is not null group by category_id";
+
+    private static final String SELECT_CHANGES = OutboxRelay.SELECT_EVENTS + " where id > ? order by id limit ?";
+
+    //baris yang lebih tua dari gap-timeout dianggap sudah commit; tanpa baris lama mulai dari baris pertama
+    private static final String SELECT_START =
+            "select coalesce(max(id), (select min(id) - 1 from outbox_events)) from outbox_events where created_at < ?";
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${app.price-statistics.apply-interval:500ms}")
+    private Duration applyInterval;
+
+    @Value("${app.price-statistics.rebuild-interval:1h}")
+    private Duration rebuildInterval;
+
+    @Value("${app.price-statistics.gap-timeout:1m}")
+    private Duration gapTimeout;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    //id outbox terakhir yang dibaca node ini, 0 = belum ada baris
+    private long cursor;
+
+    private boolean tailing;
+
+    //id yang dilewati cursor: transaksi yang belum commit (atau rollback), urut naik
+    private List<Gap> gaps = new ArrayList<>();
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    //berubah selama rebuild, diterapkan lagi di atas hasil rebuild
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean rebuilding;
+
+    private volatile boolean ready;
+
+    private PriceStatisticsTable table = new PriceStatisticsTable();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::applyQuietly,
+                applyInterval.toMillis(), applyInterval.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Optional<PriceStatistics> findByCategoryId(Long categoryId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(table.get(categoryId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PriceStatistics> findAll() {
+        lock.readLock().lock();
+        try {
+            return table.getAll();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * False until the first rebuild finished; before that every category looks empty.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reads the outbox rows written since the previous call, applies the products they changed
+     * and returns how many were applied.
+     */
+    public int applyPending() {
+        poll();
+        List<Long> ids = new ArrayList<>(pending);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        //dihapus sebelum dibaca: event yang datang selama apply tetap tersimpan untuk apply berikutnya
+        ids.forEach(pending::remove);
+        try {
+            apply(ids);
+        } catch (RuntimeException e) {
+            pending.addAll(ids);
+            throw e;
+        }
+        return ids.size();
+    }
+
+    /**
+     * Reads every product again and replaces the statistics.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            changedDuringRebuild.clear();
+            rebuilding = true;
+            startTail();
+
+            PriceStatisticsTable rebuilt = new PriceStatisticsTable();
+            //fetch size: Connector/J membaca per 1000 baris (useCursorFetch=true), bukan seluruh tabel
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_ALL);
+                statement.setFetchSize(1_000);
+                return statement;
+            }, resultSet -> {
+                rebuilt.put(resultSet.getLong("id"), resultSet.getObject("category_id", Long.class),
+                        resultSet.getObject("price", Long.class));
+            });
+
+            lock.writeLock().lock();
+            try {
+                table = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuilding = false;
+            //event yang datang selama scan bisa lebih baru atau lebih lama dari snapshot, baca ulang barisnya
+            List<Long> changed = new ArrayList<>(changedDuringRebuild);
+            if (!changed.isEmpty()) {
+                apply(changed);
+            }
+            ready = true;
+        } finally {
+            rebuilding = false;
+            rebuildLock.unlock();
+        }
+    }
+
+    //sebelum scan pertama, supaya tidak ada perubahan di antara scan dan cursor yang terlewat
+    private void startTail() {
+        pollLock.lock();
+        try {
+            if (!tailing) {
+                Long start = jdbcTemplate.queryForObject(SELECT_START, Long.class,
+                        Timestamp.from(Instant.now().minus(gapTimeout)));
+                cursor = start == null ? 0 : start;
+                tailing = true;
+            }
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private void poll() {
+        pollLock.lock();
+        try {
+            startTail();
+            pollGaps();
+            while (true) {
+                List<EntityChangedEvent> batch = jdbcTemplate.query(SELECT_CHANGES, OutboxRelay.EVENT_MAPPER, cursor, CHUNK_SIZE);
+                long deadline = System.nanoTime() + gapTimeout.toNanos();
+                for (EntityChangedEvent event : batch) {
+                    if (cursor > 0 && event.id() > cursor + 1) {
+                        gaps.add(new Gap(cursor + 1, event.id() - 1, deadline));
+                    }
+                    cursor = event.id();
+                    changed(event);
+                }
+                if (batch.size() < CHUNK_SIZE) {
+                    return;
+                }
+            }
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private void pollGaps() {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        List<Gap> open = new ArrayList<>();
+        for (int from = 0; from < gaps.size(); from += CHUNK_SIZE) {
+            List<Gap> chunk = gaps.subList(from, Math.min(gaps.size(), from + CHUNK_SIZE));
+            String sql = OutboxRelay.SELECT_EVENTS + " where "
+                    + String.join(" or ", Collections.nCopies(chunk.size(), "id between ? and ?")) + " order by id";
+            Object[] bounds = chunk.stream().flatMap(gap -> Stream.of(gap.from(), gap.to())).toArray();
+            List<EntityChangedEvent> found = jdbcTemplate.query(sql, OutboxRelay.EVENT_MAPPER, bounds);
+
+            //baris yang sudah muncul memecah gap, sisanya tetap ditunggu
+            int index = 0;
+            for (Gap gap : chunk) {
+                long next = gap.from();
+                for (; index < found.size() && found.get(index).id() <= gap.to(); index++) {
+                    EntityChangedEvent event = found.get(index);
+                    if (event.id() > next) {
+                        open.add(new Gap(next, event.id() - 1, gap.deadline()));
+                    }
+                    next = event.id() + 1;
+                    changed(event);
+                }
+                if (next <= gap.to()) {
+                    open.add(new Gap(next, gap.to(), gap.deadline()));
+                }
+            }
+        }
+        //id yang tidak pernah muncul: rollback, atau transaksi yang terlalu lama (dikoreksi rebuild)
+        long now = System.nanoTime();
+        open.removeIf(gap -> gap.deadline() - now < 0);
+        gaps = open;
+    }
+
+    private void changed(EntityChangedEvent event) {
+        if (!event.aggregateType().equals("Product")) {
+            return;
+        }
+        pending.add(event.aggregateId());
+        if (rebuilding) {
+            changedDuringRebuild.add(event.aggregateId());
+        }
+    }
+
+    private void apply(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE));
+
+            Map<Long, Long[]> rows = new HashMap<>();
+            namedParameterJdbcTemplate.query(SELECT_PRODUCTS, Map.of("ids", chunk), resultSet -> {
+                rows.put(resultSet.getLong("id"), new Long[]{
+                        resultSet.getObject("category_id", Long.class), resultSet.getObject("price", Long.class)});
+            });
+
+            List<Long> stale;
+            lock.writeLock().lock();
+            try {
+                for (Long id : chunk) {
+                    Long[] row = rows.get(id);
+                    if (row == null) {
+                        table.remove(id);
+                    } else {
+                        table.put(id, row[0], row[1]);
+                    }
+                }
+                stale = table.getStaleCategoryIds();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            if (!stale.isEmpty()) {
+                refreshExtremes(stale);
+            }
+        }
+    }
+
+    //min/max yang terhapus tidak bisa dihitung dari agregat, ambil dari database untuk category itu saja
+    private void refreshExtremes(List<Long> categoryIds) {
+        Map<Long, long[]> extremes = new HashMap<>();
+        namedParameterJdbcTemplate.query(SELECT_EXTREMES, Map.of("ids", categoryIds), resultSet -> {
+            extremes.put(resultSet.getLong("category_id"),
+                    new long[]{resultSet.getLong("min_price"), resultSet.getLong("max_price")});
+        });
+
+        lock.writeLock().lock();
+        try {
+            extremes.forEach((categoryId, value) -> table.setExtremes(categoryId, value[0], value[1]));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void applyQuietly() {
+        try {
+            applyPending();
+        } catch (RuntimeException e) {
+            //id tetap di pending, dicoba lagi berikutnya
+            log.error("Failed to apply {} product changes to price statistics", pending.size(), e);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            WorkloadContext.run(WorkloadClass.BATCH, this::rebuild);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild price statistics", e);
+        }
+    }
+
+    private record Gap(long from, long to, long deadline) {
+    }
+}
@@ -0,0 +1,277 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.model.PriceStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Primitive arrays behind {@link PriceStatisticsService}: the last known category and price of
+ * every product, and count/sum/min/max per category. Removing the current minimum or maximum
+ * of a category cannot be undone from the aggregates alone, so the category is only marked
+ * stale and its extremes are set again with {@link #setExtremes}. Not thread-safe.
+ */
+class PriceStatisticsTable {
+
+    private final LongIntMap productSlots = new LongIntMap();
+
+    private long[] productCategory = new long[64];
+
+    private long[] productPrice = new long[64];
+
+    private final LongIntMap categorySlots = new LongIntMap();
+
+    private long[] categoryIds = new long[16];
+
+    private long[] count = new long[16];
+
+    private long[] sum = new long[16];
+
+    private long[] min = new long[16];
+
+    private long[] max = new long[16];
+
+    private final BitSet staleExtremes = new BitSet();
+
+    //slot product yang kosong setelah remove, dipakai ulang
+    private int[] freeProductSlots = new int[16];
+
+    private int freeProducts;
+
+    private int usedProducts;
+
+    /**
+     * Sets the current state of a product; {@code categoryId} or {@code price} null removes it.
+     * Applying the same state twice changes nothing.
+     */
+    void put(long productId, Long categoryId, Long price) {
+        int slot = productSlots.get(productId);
+        if (slot >= 0) {
+            if (categoryId != null && price != null
+                    && productCategory[slot] == categoryId && productPrice[slot] == price) {
+                return;
+            }
+            subtract(productCategory[slot], productPrice[slot]);
+        }
+
+        if (categoryId == null || price == null) {
+            if (slot >= 0) {
+                productSlots.remove(productId);
+                releaseProductSlot(slot);
+            }
+            return;
+        }
+
+        if (slot < 0) {
+            slot = allocateProductSlot();
+            productSlots.put(productId, slot);
+        }
+        productCategory[slot] = categoryId;
+        productPrice[slot] = price;
+        add(categoryId, price);
+    }
+
+    void remove(long productId) {
+        put(productId, null, null);
+    }
+
+    List<Long> getStaleCategoryIds() {
+        List<Long> ids = new ArrayList<>();
+        staleExtremes.stream().forEach(slot -> ids.add(categoryIds[slot]));
+        return ids;
+    }
+
+    void setExtremes(long categoryId, long minPrice, long maxPrice) {
+        int slot = categorySlots.get(categoryId);
+        if (slot >= 0) {
+            min[slot] = minPrice;
+            max[slot] = maxPrice;
+            staleExtremes.clear(slot);
+        }
+    }
+
+    PriceStatistics get(long categoryId) {
+        int slot = categorySlots.get(categoryId);
+        if (slot < 0 || count[slot] == 0) {
+            return null;
+        }
+        return new PriceStatistics(categoryId, count[slot], sum[slot], min[slot], max[slot], (double) sum[slot] / count[slot]);
+    }
+
+    List<PriceStatistics> getAll() {
+        List<PriceStatistics> all = new ArrayList<>();
+        for (int slot = 0; slot < categorySlots.size(); slot++) {
+            if (count[slot] > 0) {
+                all.add(get(categoryIds[slot]));
+            }
+        }
+        return all;
+    }
+
+    int getProductCount() {
+        return productSlots.size();
+    }
+
+    private void add(long categoryId, long price) {
+        int slot = categorySlot(categoryId);
+        if (count[slot] == 0) {
+            min[slot] = price;
+            max[slot] = price;
+        } else {
+            min[slot] = Math.min(min[slot], price);
+            max[slot] = Math.max(max[slot], price);
+        }
+        count[slot]++;
+        sum[slot] += price;
+    }
+
+    private void subtract(long categoryId, long price) {
+        int slot = categorySlots.get(categoryId);
+        count[slot]--;
+        sum[slot] -= price;
+        if (count[slot] == 0) {
+            staleExtremes.clear(slot);
+        } else if (price == min[slot] || price == max[slot]) {
+            staleExtremes.set(slot);
+        }
+    }
+
+    //slot category tidak pernah dilepas, jumlah category kecil dan category kosong bisa terisi lagi
+    private int categorySlot(long categoryId) {
+        int slot = categorySlots.get(categoryId);
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = categorySlots.size();
+        if (slot == categoryIds.length) {
+            int length = slot * 2;
+            categoryIds = Arrays.copyOf(categoryIds, length);
+            count = Arrays.copyOf(count, length);
+            sum = Arrays.copyOf(sum, length);
+            min = Arrays.copyOf(min, length);
+            max = Arrays.copyOf(max, length);
+        }
+        categoryIds[slot] = categoryId;
+        categorySlots.put(categoryId, slot);
+        return slot;
+    }
+
+    private int allocateProductSlot() {
+        if (freeProducts > 0) {
+            return freeProductSlots[--freeProducts];
+        }
+        if (usedProducts == productCategory.length) {
+            productCategory = Arrays.copyOf(productCategory, usedProducts * 2);
+            productPrice = Arrays.copyOf(productPrice, usedProducts * 2);
+        }
+        return usedProducts++;
+    }
+
+    private void releaseProductSlot(int slot) {
+        if (freeProducts == freeProductSlots.length) {
+            freeProductSlots = Arrays.copyOf(freeProductSlots, freeProducts * 2);
+        }
+        freeProductSlots[freeProducts++] = slot;
+    }
+
+    /**
+     * Open addressing long to int map with linear probing, without boxing. Values are never
+     * negative, -1 means absent.
+     */
+    static final class LongIntMap {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(16);
+
+        private int[] values = new int[16];
+
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    return values[index];
+                }
+                if (keys[index] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if (key == EMPTY) {
+                throw new IllegalArgumentException("Unsupported key " + key);
+            }
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (keys[index] != EMPTY && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            if (keys[index] == EMPTY) {
+                size++;
+            }
+            keys[index] = key;
+            values[index] = value;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (keys[index] != key) {
+                if (keys[index] == EMPTY) {
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = EMPTY;
+            size--;
+
+            //geser entry berikutnya ke belakang supaya probing tidak terputus (tanpa tombstone)
+            for (int next = (index + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                boolean between = index <= next ? index < home && home <= next : index < home || home <= next;
+                if (!between) {
+                    keys[index] = keys[next];
+                    values[index] = values[next];
+                    keys[next] = EMPTY;
+                    index = next;
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long[] newKeys(int length) {
+            long[] keys = new long[length];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
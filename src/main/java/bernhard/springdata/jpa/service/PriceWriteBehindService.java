@@ -0,0 +1,177 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ChangeType;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers price changes in memory and writes only the latest price per product, periodically
+ * or once the buffer reaches {@code app.price.write-behind.max-pending} products, as one JDBC
+ * batch UPDATE. Buffered prices are visible through {@link #findPrice(Long)} before they are
+ * written, and the buffer is flushed on shutdown.
+ * <p>
+ * The buffer holds at most {@code app.price.write-behind.max-buffered} products, plus one per
+ * concurrent caller: a submit for a new product at that size flushes synchronously on the
+ * caller's thread, so callers slow down to the write rate of the database, and get its
+ * exception when it is down.
+ */
+@Slf4j
+@Service
+public class PriceWriteBehindService {
+
+    private static final String UPDATE_PRICE = "update products set price = ?, version = version + 1 where id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Value("${app.price.write-behind.flush-interval:1s}")
+    private Duration flushInterval;
+
+    @Value("${app.price.write-behind.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${app.price.write-behind.max-buffered:50000}")
+    private int maxBuffered;
+
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicLong submitted = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void submit(Long productId, Long price) {
+        //back-pressure: kalau flush tertinggal atau database mati, caller ikut menulis (atau gagal)
+        //daripada buffer tumbuh tanpa batas. product yang sudah di buffer hanya menimpa harga
+        if (pending.size() >= maxBuffered && !pending.containsKey(productId)) {
+            flush();
+        }
+        pending.put(productId, price);
+        submitted.incrementAndGet();
+
+        if (pending.size() >= maxPending && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flushQuietly);
+        }
+    }
+
+    //read-your-writes: harga yang belum di-flush tetap terbaca
+    public Optional<Long> findPrice(Long productId) {
+        Long price = pending.get(productId);
+        if (price != null) {
+            return Optional.of(price);
+        }
+        return productRepository.findById(productId).map(Product::getPrice);
+    }
+
+    /**
+     * Writes the current buffer and returns the number of rows updated. Entries that change
+     * while the batch is running stay in the buffer for the next flush.
+     */
+    public int flush() {
+        //ReentrantLock, bukan synchronized: JDBC di dalam synchronized mem-pin virtual thread ke carrier
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        flushScheduled.set(false);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<Long, Long>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        transactionOperations.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_PRICE, batch, batch.size(), (statement, entry) -> {
+                statement.setLong(1, entry.getValue());
+                statement.setLong(2, entry.getKey());
+            });
+            outboxWriter.record("Product", batch.stream().map(Map.Entry::getKey).toList(), ChangeType.UPDATED);
+        });
+
+        batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+        written.addAndGet(batch.size());
+        return batch.size();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            //data tetap di buffer, dicoba lagi di flush berikutnya
+            log.error("Failed to flush {} buffered prices", pending.size(), e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.config.Workload;
+import bernhard.springdata.jpa.config.WorkloadClass;
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.BulkDeleteOptions;
+import bernhard.springdata.jpa.model.BulkDeleteProgress;
+import bernhard.springdata.jpa.model.ChangeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deletes products by name in bounded chunks, each in its own short transaction, instead of
+ * {@code deleteByName} (loads every row into the persistence context) or
+ * {@code deleteProductUsingName} (one unbounded DELETE holding locks and undo log for the
+ * whole set). A failure or interrupt only loses the current chunk; committed chunks stay
+ * deleted and the call can simply be repeated.
+ */
+@Slf4j
+@Service
+@Workload(WorkloadClass.BATCH)
+public class ProductBulkDeleteService {
+
+    //lewat idx_products_name (name, lalu id dari primary key): hanya baris chunk ini yang dikunci
+    private static final String SELECT_CHUNK =
+            "select id, category_id from products where name = ? order by id limit ? for update";
+
+    private static final String DECREMENT_COUNT = "update categories set product_count = product_count - ? where id = ?";
+
+    private static final String DELETE_CHUNK = "delete from products where id in (:ids)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.bulk-delete.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    @Value("${app.bulk-delete.pause:0ms}")
+    private Duration defaultPause;
+
+    public long deleteByName(String name) {
+        return deleteByName(name, BulkDeleteOptions.defaults());
+    }
+
+    /**
+     * Returns the number of deleted products. Stops early, keeping the chunks already committed,
+     * when the thread is interrupted during a pause.
+     */
+    public long deleteByName(String name, BulkDeleteOptions options) {
+        int chunkSize = options.chunkSize() != null ? options.chunkSize() : defaultChunkSize;
+        Duration pause = options.pause() != null ? options.pause() : defaultPause;
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        long total = 0;
+        int chunk = 0;
+        while (true) {
+            DeletedChunk deleted = options.lifecycleEvents()
+                    ? transactionOperations.execute(status -> deleteEntities(name, chunkSize))
+                    : transactionOperations.execute(status -> deleteRows(name, chunkSize));
+            if (deleted == null || deleted.ids().isEmpty()) {
+                return total;
+            }
+            //setelah commit, supaya transaksi lain tidak sempat meng-cache counter lama
+            evictCategories(deleted.categoryIds());
+
+            List<Long> ids = deleted.ids();
+            total += ids.size();
+            chunk++;
+            if (options.progress() != null) {
+                options.progress().accept(new BulkDeleteProgress(chunk, List.copyOf(ids), total));
+            }
+            if (ids.size() < chunkSize) {
+                return total;
+            }
+
+            if (!pause.isZero() && !sleep(pause)) {
+                log.warn("Bulk delete of '{}' interrupted after {} products", name, total);
+                return total;
+            }
+        }
+    }
+
+    private DeletedChunk deleteRows(String name, int chunkSize) {
+        //FOR UPDATE: row terkunci sampai commit, jadi counter dan delete melihat baris yang sama
+        Map<Long, Long> perCategory = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        jdbcTemplate.query(SELECT_CHUNK, resultSet -> {
+            ids.add(resultSet.getLong("id"));
+            long categoryId = resultSet.getLong("category_id");
+            if (!resultSet.wasNull()) {
+                perCategory.merge(categoryId, 1L, Long::sum);
+            }
+        }, name, chunkSize);
+        if (ids.isEmpty()) {
+            return new DeletedChunk(ids, Set.of());
+        }
+
+        List<Map.Entry<Long, Long>> counts = new ArrayList<>(perCategory.entrySet());
+        jdbcTemplate.batchUpdate(DECREMENT_COUNT, counts, counts.size(), (statement, entry) -> {
+            statement.setLong(1, entry.getValue());
+            statement.setLong(2, entry.getKey());
+        });
+        outboxWriter.record("Product", ids, ChangeType.DELETED);
+        namedParameterJdbcTemplate.update(DELETE_CHUNK, Map.of("ids", ids));
+        return new DeletedChunk(ids, perCategory.keySet());
+    }
+
+    //lewat EntityManager, jadi event listener Hibernate (dan eviction-nya) ikut jalan
+    private DeletedChunk deleteEntities(String name, int chunkSize) {
+        List<Product> products = entityManager
+                .createQuery("select p from Product p where p.name = :name order by p.id", Product.class)
+                .setParameter("name", name)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(chunkSize)
+                .getResultList();
+
+        List<Long> ids = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ids.add(product.getId());
+            entityManager.remove(product);
+        }
+        return new DeletedChunk(ids, Set.of());
+    }
+
+    //product_count diubah lewat JDBC, hapus category terkait dari second-level cache
+    private void evictCategories(Set<Long> categoryIds) {
+        categoryIds.forEach(id -> entityManagerFactory.getCache().evict(Category.class, id));
+    }
+
+    private boolean sleep(Duration pause) {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record DeletedChunk(List<Long> ids, Set<Long> categoryIds) {
+    }
+}
@@ -0,0 +1,131 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves product counts per category from {@code categories.product_count} instead of running
+ * a COUNT over products on every page request. The counter is maintained by
+ * {@link bernhard.springdata.jpa.listener.ProductCountEventListener} and the bulk deletes in
+ * {@link ProductRepository}; {@link #reconcile()} recomputes it every
+ * {@code app.product-count.reconcile-interval} to correct drift from writes that bypass both,
+ * such as manual SQL.
+ */
+@Slf4j
+@Service
+public class ProductCountService {
+
+    private static final String RECONCILE = """
+            update categories set product_count = (select count(*) from products where category_id = ?)
+            where id = ? and product_count <> (select count(*) from products where category_id = ?)
+            """;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.product-count.reconcile-interval:1h}")
+    private Duration reconcileInterval;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-count-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::reconcileQuietly,
+                reconcileInterval.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public long countByCategoryName(String name) {
+        return categoryRepository.sumProductCountByName(name);
+    }
+
+    /**
+     * Same result as {@link ProductRepository#findAllByCategory_Name(String, Pageable)}, with the
+     * total taken from the counter. The counter is only read when the total cannot be derived
+     * from the page itself (a full page, or a page past the first).
+     */
+    public Page<Product> findAllByCategoryName(String name, Pageable pageable) {
+        List<Product> products = productRepository.findByCategory_Name(name, pageable);
+        return PageableExecutionUtils.getPage(products, pageable, () -> countByCategoryName(name));
+    }
+
+    /**
+     * {@link #findAllByCategoryName} with the category fetched in the same query, for callers
+     * that use the products after the transaction ended.
+     */
+    public Page<Product> findAllWithCategoryByCategoryName(String name, Pageable pageable) {
+        List<Product> products = productRepository.findWithCategoryByCategory_Name(name, pageable);
+        return PageableExecutionUtils.getPage(products, pageable, () -> countByCategoryName(name));
+    }
+
+    /**
+     * Recomputes the counter of every category and returns the number of categories that had
+     * drifted. Each category is corrected in its own short transaction so no long-lived lock is
+     * held on the categories table.
+     */
+    public int reconcile() {
+        int corrected = 0;
+        for (Long id : categoryRepository.findAllIds()) {
+            Integer updated = transactionOperations.execute(status -> jdbcTemplate.update(RECONCILE, id, id, id));
+            if (updated != null && updated > 0) {
+                //product_count diubah lewat JDBC, cache category sudah basi
+                entityManagerFactory.getCache().evict(Category.class, id);
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void reconcileQuietly() {
+        try {
+            int corrected = reconcile();
+            if (corrected > 0) {
+                log.warn("Corrected product count of {} categories", corrected);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to reconcile product counts", e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.config.Workload;
+import bernhard.springdata.jpa.config.WorkloadClass;
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ExportFormat;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every product of a category to an output stream while the rows are still being read.
+ * The query uses a server-side cursor and every row is detached once written, so memory use
+ * does not grow with the size of the category. The cursor needs {@code useCursorFetch=true},
+ * which is set only on the REPORTING pool (see application.properties).
+ */
+@Service
+public class ProductExportService {
+
+    private static final int FLUSH_EVERY = 1_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Workload(WorkloadClass.REPORTING)
+    @Transactional(readOnly = true)
+    public long export(Category category, ExportFormat format, OutputStream outputStream) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long total = 0;
+
+        try (Stream<Product> stream = productRepository.streamAllByCategory(category);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            //satu generator untuk seluruh export, tiap object satu baris (NDJSON)
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            if (format == ExportFormat.CSV) {
+                writer.write("id,name,price,category_id\n");
+            }
+
+            Iterator<Product> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, product, category);
+                } else {
+                    writeJson(generator, product, category);
+                }
+                entityManager.detach(product);
+
+                if (++total % FLUSH_EVERY == 0) {
+                    generator.flush();
+                    writer.flush();
+                }
+            }
+            generator.flush();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return total;
+    }
+
+    private void writeCsv(Writer writer, Product product, Category category) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writer.write(csv(product.getName()));
+        writer.write(',');
+        writer.write(product.getPrice() == null ? "" : String.valueOf(product.getPrice()));
+        writer.write(',');
+        writer.write(String.valueOf(category.getId()));
+        writer.write('\n');
+    }
+
+    private void writeJson(JsonGenerator generator, Product product, Category category) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", product.getId());
+        generator.writeStringField("name", product.getName());
+        if (product.getPrice() == null) {
+            generator.writeNullField("price");
+        } else {
+            generator.writeNumberField("price", product.getPrice());
+        }
+        generator.writeNumberField("categoryId", category.getId());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
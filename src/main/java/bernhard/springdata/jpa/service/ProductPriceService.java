@@ -0,0 +1,40 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+@Service
+public class ProductPriceService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OptimisticLockRetryTemplate optimisticLockRetryTemplate;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    //tidak mengunci row, konflik dideteksi lewat @Version saat commit lalu diulang
+    public Product updatePrice(Long id, Long price) {
+        return optimisticLockRetryTemplate.execute(status -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+            product.setPrice(price);
+            return product;
+        });
+    }
+
+    //SELECT ... FOR UPDATE, writer lain menunggu sampai transaksi ini selesai
+    public Product updatePriceLocked(Long id, Long price) {
+        return transactionOperations.execute(status -> {
+            Product product = productRepository.findFirstById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+            product.setPrice(price);
+            return product;
+        });
+    }
+}
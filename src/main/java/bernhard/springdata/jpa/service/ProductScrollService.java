@@ -0,0 +1,145 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductFilter;
+import bernhard.springdata.jpa.model.ProductWindow;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset (seek) pagination for product listings. The token returned in {@link ProductWindow}
+ * encodes the sort key and id of the last row, so the next page starts with
+ * {@code WHERE (sort key, id) > (?, ?)} instead of skipping rows with OFFSET.
+ * Rows inserted while a client is scrolling never shift the pages it has not read yet.
+ * All listings go through {@link ProductRepository#findAllByFilter}, whose keyset predicate
+ * handles NULL sort keys. A token records the sort it was made for and is rejected for any
+ * other sort.
+ */
+@Service
+public class ProductScrollService {
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "name", "price");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public ProductWindow findAllByCategoryName(String name, Sort sort, int size, String token) {
+        return scroll(ProductFilter.builder().categoryName(name).sort(sort).limit(size).build(), token);
+    }
+
+    public ProductWindow findAllByCategory(Category category, Sort sort, int size, String token) {
+        return scroll(ProductFilter.builder().categoryIds(List.of(category.getId())).sort(sort).limit(size).build(), token);
+    }
+
+    public ProductWindow searchProduct(String name, Sort sort, int size, String token) {
+        return scroll(ProductFilter.builder().nameOrCategoryNameLike(name).sort(sort).limit(size).build(), token);
+    }
+
+    public ProductWindow filter(ProductFilter filter, String token) {
+        return scroll(filter, token);
+    }
+
+    private ProductWindow scroll(ProductFilter filter, String token) {
+        Sort sort = withIdTieBreaker(filter.sort());
+        Window<Product> window = productRepository.findAllByFilter(
+                filter.toBuilder().sort(sort).position(decode(token, sort)).build());
+        if (window.isEmpty() || !window.hasNext()) {
+            return new ProductWindow(window.getContent(), null, false);
+        }
+        ScrollPosition last = window.positionAt(window.size() - 1);
+        return new ProductWindow(window.getContent(), encode((KeysetScrollPosition) last, sort), true);
+    }
+
+    private Sort withIdTieBreaker(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+        }
+        //id unik, jadi urutan selalu stabil walaupun sort key sama
+        return sort.getOrderFor("id") == null ? sort.and(Sort.by("id")) : sort;
+    }
+
+    /**
+     * Per sort order: property, direction, then the key of the last row, tagged L (Long),
+     * S (String) or N (NULL).
+     */
+    static String encode(KeysetScrollPosition position, Sort sort) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            List<Sort.Order> orders = sort.toList();
+            output.writeByte(orders.size());
+            for (Sort.Order order : orders) {
+                if (!position.getKeys().containsKey(order.getProperty())) {
+                    throw new IllegalArgumentException("Keyset position has no value for sort property " + order.getProperty());
+                }
+                Object value = position.getKeys().get(order.getProperty());
+                output.writeUTF(order.getProperty());
+                output.writeByte(order.isAscending() ? 'A' : 'D');
+                if (value == null) {
+                    output.writeByte('N');
+                } else if (value instanceof Long number) {
+                    output.writeByte('L');
+                    output.writeLong(number);
+                } else {
+                    output.writeByte('S');
+                    output.writeUTF(value.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    static KeysetScrollPosition decode(String token, Sort sort) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try (DataInputStream input = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            List<Sort.Order> orders = sort.toList();
+            if (input.readUnsignedByte() != orders.size()) {
+                throw new IllegalArgumentException("Scroll token does not match the sort");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (Sort.Order order : orders) {
+                //token dari sort lain (property atau arah beda) akan melompati atau mengulang baris
+                String property = input.readUTF();
+                boolean ascending = input.readByte() == 'A';
+                if (!property.equals(order.getProperty()) || ascending != order.isAscending()) {
+                    throw new IllegalArgumentException("Scroll token does not match the sort");
+                }
+                keys.put(property, switch (input.readByte()) {
+                    case 'N' -> null;
+                    case 'L' -> input.readLong();
+                    case 'S' -> input.readUTF();
+                    default -> throw new IllegalArgumentException("Invalid scroll token");
+                });
+            }
+            if (input.available() > 0) {
+                throw new IllegalArgumentException("Invalid scroll token");
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid scroll token", e);
+        }
+    }
+}
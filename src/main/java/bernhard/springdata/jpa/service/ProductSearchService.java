@@ -0,0 +1,199 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text product search on the MySQL FULLTEXT indexes. Every word of the input must match
+ * the product name or the category name as a prefix ("iph pro" finds "Apple Iphone 14 Pro Max",
+ * "gadget iphone" finds it through its category), and results are ordered by relevance.
+ * Replaces the leading-wildcard LIKE of searchProduct.
+ * <p>
+ * The small categories table is searched first. Products are then found through the products
+ * FULLTEXT index with every word required ({@code +w1* +w2*}), once for words all in the product
+ * name and once per group of categories, with only the words that category does not match, so a
+ * common word never pulls in rows that miss the other words.
+ * <p>
+ * Words shorter than {@code app.search.min-token-size} (innodb_ft_min_token_size) are not in
+ * the FULLTEXT index; they are matched with LIKE on the rows found through the longer words.
+ */
+@Service
+public class ProductSearchService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.search.min-token-size:3}")
+    private int minTokenSize;
+
+    @Transactional(readOnly = true)
+    public Slice<Product> search(String text, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        SearchQuery searchQuery = SearchQuery.of(text, minTokenSize);
+        if (searchQuery.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageRequest, false);
+        }
+
+        Map<List<Integer>, List<Long>> categories = findCategories(searchQuery);
+        Query query = entityManager.createNativeQuery(searchQuery.sql(categories), Product.class);
+        searchQuery.bind(query, categories);
+        //satu baris lebih untuk tahu masih ada halaman berikutnya
+        query.setFirstResult((int) pageRequest.getOffset());
+        query.setMaxResults(size + 1);
+
+        @SuppressWarnings("unchecked")
+        List<Product> products = query.getResultList();
+        boolean hasNext = products.size() > size;
+        return new SliceImpl<>(hasNext ? products.subList(0, size) : products, pageRequest, hasNext);
+    }
+
+    //id category per kombinasi kata yang cocok dengan namanya, misalnya [0] -> kata pertama saja
+    private Map<List<Integer>, List<Long>> findCategories(SearchQuery searchQuery) {
+        Map<List<Integer>, List<Long>> categories = new LinkedHashMap<>();
+        if (searchQuery.tokens().isEmpty()) {
+            return categories;
+        }
+
+        Query query = entityManager.createNativeQuery(searchQuery.categorySql());
+        searchQuery.bindTokens(query);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        for (Object[] row : rows) {
+            List<Integer> matched = new ArrayList<>();
+            for (int i = 0; i < searchQuery.tokens().size(); i++) {
+                if (((Number) row[i + 1]).doubleValue() > 0) {
+                    matched.add(i);
+                }
+            }
+            if (!matched.isEmpty()) {
+                categories.computeIfAbsent(matched, key -> new ArrayList<>()).add(((Number) row[0]).longValue());
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Words of the input split into those the FULLTEXT index knows and the shorter ones.
+     */
+    record SearchQuery(List<String> tokens, List<String> shortTokens) {
+
+        static SearchQuery of(String text, int minTokenSize) {
+            List<String> tokens = new ArrayList<>();
+            List<String> shortTokens = new ArrayList<>();
+            if (text != null) {
+                //operator boolean mode (+ - * " dll) dibuang supaya input user tidak bisa mengubah arti query
+                Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                        .filter(token -> !token.isEmpty())
+                        .distinct()
+                        .forEach(token -> (token.length() < minTokenSize ? shortTokens : tokens).add(token));
+            }
+            return new SearchQuery(tokens, shortTokens);
+        }
+
+        boolean isEmpty() {
+            return tokens.isEmpty() && shortTokens.isEmpty();
+        }
+
+        //hanya untuk relevance dan kandidat category, bukan untuk menyaring product
+        String anyToken() {
+            return tokens.stream().map(token -> token + "*").collect(Collectors.joining(" "));
+        }
+
+        //kata yang tidak ada di matched wajib ada di nama product
+        String requiredTokens(List<Integer> matched) {
+            List<String> required = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                if (!matched.contains(i)) {
+                    required.add("+" + tokens.get(i) + "*");
+                }
+            }
+            return String.join(" ", required);
+        }
+
+        String categorySql() {
+            StringBuilder sql = new StringBuilder("select c.id");
+            for (int i = 0; i < tokens.size(); i++) {
+                sql.append(", match(c.name) against (:token").append(i).append(" in boolean mode) as token").append(i);
+            }
+            return sql.append(" from categories c where match(c.name) against (:any in boolean mode)").toString();
+        }
+
+        void bindTokens(Query query) {
+            query.setParameter("any", anyToken());
+            for (int i = 0; i < tokens.size(); i++) {
+                query.setParameter("token" + i, "+" + tokens.get(i) + "*");
+            }
+        }
+
+        String sql(Map<List<Integer>, List<Long>> categories) {
+            StringBuilder sql = new StringBuilder("select p.* from products p join categories c on c.id = p.category_id");
+            if (!tokens.isEmpty()) {
+                //semua kata di nama product, lalu per kelompok category sisa katanya saja
+                List<String> hits = new ArrayList<>();
+                hits.add("select p.id, match(p.name) against (:any in boolean mode) as score from products p"
+                        + " where match(p.name) against (:required in boolean mode)");
+                int group = 0;
+                for (List<Integer> matched : categories.keySet()) {
+                    String hit = "select p.id, match(p.name) against (:any in boolean mode) as score from products p"
+                            + " where p.category_id in (:categories" + group + ")";
+                    if (matched.size() < tokens.size()) {
+                        hit += " and match(p.name) against (:required" + group + " in boolean mode)";
+                    }
+                    hits.add(hit);
+                    group++;
+                }
+                sql.append(" join (select hits.id, max(hits.score) as score from (")
+                        .append(String.join(" union all ", hits))
+                        .append(") hits group by hits.id) ranked on ranked.id = p.id");
+            }
+
+            //kata pendek sebagai prefix kata: di awal nama atau setelah spasi
+            List<String> conditions = new ArrayList<>();
+            for (int i = 0; i < shortTokens.size(); i++) {
+                conditions.add("(p.name like :start" + i + " or p.name like :word" + i
+                        + " or c.name like :start" + i + " or c.name like :word" + i + ")");
+            }
+            if (!conditions.isEmpty()) {
+                sql.append(" where ").append(String.join(" and ", conditions));
+            }
+            //hanya kata pendek: tidak ada index yang bisa dipakai, scan seperti searchProduct
+            sql.append(tokens.isEmpty() ? " order by p.id" : " order by ranked.score desc, p.id");
+            return sql.toString();
+        }
+
+        void bind(Query query, Map<List<Integer>, List<Long>> categories) {
+            if (!tokens.isEmpty()) {
+                query.setParameter("any", anyToken());
+                query.setParameter("required", requiredTokens(List.of()));
+            }
+            int group = 0;
+            for (Map.Entry<List<Integer>, List<Long>> entry : categories.entrySet()) {
+                query.setParameter("categories" + group, entry.getValue());
+                if (entry.getKey().size() < tokens.size()) {
+                    query.setParameter("required" + group, requiredTokens(entry.getKey()));
+                }
+                group++;
+            }
+            //token hanya huruf dan angka, tidak perlu escape % dan _
+            for (int i = 0; i < shortTokens.size(); i++) {
+                query.setParameter("start" + i, shortTokens.get(i) + "%");
+                query.setParameter("word" + i, "% " + shortTokens.get(i) + "%");
+            }
+        }
+    }
+}
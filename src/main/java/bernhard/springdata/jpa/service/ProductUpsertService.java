@@ -0,0 +1,244 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.config.Workload;
+import bernhard.springdata.jpa.config.WorkloadClass;
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ChangeType;
+import bernhard.springdata.jpa.model.ProductUpsert;
+import bernhard.springdata.jpa.model.ProductUpsertResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Creates or overwrites products by name, replacing {@code existsByName} followed by
+ * {@code save} per product. Every batch of {@code app.product-upsert.batch-size} products is
+ * one transaction with a fixed number of statements: one query resolving the category names,
+ * one reading the existing rows, one multi-row {@code INSERT ... ON DUPLICATE KEY UPDATE}, plus
+ * the product_count and outbox writes. Repeating a call with the same input only overwrites.
+ * <p>
+ * Products are matched on {@code name}. Names may repeat, so of several products with the same
+ * name the one holding the unique {@code name_key} wins, otherwise the oldest; products created
+ * elsewhere have no key yet and get it on their first upsert. The key makes two concurrent
+ * inserts of a new name collide: the affected-row count then differs from what the batch
+ * expected, and the batch is rolled back and run again, as after a deadlock, up to
+ * {@code app.product-upsert.max-attempts} times.
+ */
+@Slf4j
+@Service
+@Workload(WorkloadClass.BATCH)
+public class ProductUpsertService {
+
+    private static final String SELECT_CATEGORIES =
+            "select name, min(id) as id from categories where name in (:names) group by name";
+
+    //tanpa FOR UPDATE: gap lock nama yang belum ada tidak saling menghalangi, dua upsert paralel
+    //lalu deadlock di INSERT; perubahan paralel dideteksi lewat affected rows dan batch diulang
+    private static final String SELECT_EXISTING = "select id, name, category_id from products where name in (:names)"
+            + " order by name_key is null, id";
+
+    //VALUES(col) deprecated di MySQL 8.0.20 tapi masih jalan, dan didukung H2 mode MySQL;
+    //version selalu naik supaya entity yang sudah di-load gagal optimistic lock
+    private static final String UPSERT_PREFIX =
+            "insert into products (id, name, name_key, price, category_id, version) values ";
+
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, ?, 0)";
+
+    private static final String UPSERT_SUFFIX = " on duplicate key update name = values(name), name_key = values(name_key),"
+            + " price = values(price), category_id = values(category_id), version = version + 1";
+
+    private static final String UPDATE_COUNT = "update categories set product_count = product_count + ? where id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.product-upsert.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.product-upsert.max-attempts:3}")
+    private int maxAttempts;
+
+    /**
+     * Returns one result per committed batch. A name given more than once is written once, with
+     * the values of its last occurrence. A failing batch is rolled back and the exception
+     * propagated; batches committed before it stay.
+     *
+     * @throws IllegalArgumentException when a product has no name, price or category name
+     * @throws IllegalStateException    when called inside a transaction, every batch commits and retries on its own
+     */
+    public List<ProductUpsertResult> upsert(Collection<ProductUpsert> products) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Product upsert must start outside a transaction");
+        }
+        //collation MySQL case-insensitive: "Foo" dan "foo" adalah kunci yang sama
+        Map<String, ProductUpsert> unique = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (ProductUpsert product : products) {
+            if (product.name() == null || product.name().isBlank() || product.price() == null
+                    || product.categoryName() == null) {
+                throw new IllegalArgumentException("name, price and categoryName are required: " + product);
+            }
+            unique.remove(product.name());
+            unique.put(product.name(), product);
+        }
+
+        List<ProductUpsert> values = new ArrayList<>(unique.values());
+        List<ProductUpsertResult> results = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += batchSize) {
+            List<ProductUpsert> batch = values.subList(from, Math.min(from + batchSize, values.size()));
+            int number = results.size() + 1;
+            UpsertedBatch upserted = upsertWithRetry(number, batch);
+            //setelah commit, sama seperti ProductBulkDeleteService
+            upserted.categoryIds().forEach(id -> entityManagerFactory.getCache().evict(Category.class, id));
+            results.add(upserted.result());
+        }
+        return results;
+    }
+
+    private UpsertedBatch upsertWithRetry(int number, List<ProductUpsert> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> upsertBatch(number, batch));
+            } catch (ConcurrencyFailureException | DuplicateKeyException e) {
+                //deadlock, atau nama yang sama baru di-insert transaksi lain: percobaan berikutnya membaca barisnya
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Retrying upsert batch {} after attempt {} failed: {}", number, attempt, e.getMessage());
+            }
+        }
+    }
+
+    private UpsertedBatch upsertBatch(int number, List<ProductUpsert> batch) {
+        Map<String, Long> categories = findCategoryIds(batch);
+        Map<String, ExistingProduct> existing = findExisting(batch);
+
+        List<Object> parameters = new ArrayList<>(batch.size() * 5);
+        List<Long> insertedIds = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        Map<Long, Long> counts = new HashMap<>();
+        for (ProductUpsert product : batch) {
+            Long categoryId = categories.get(product.categoryName());
+            if (categoryId == null) {
+                rejected.add(product.name());
+                continue;
+            }
+
+            ExistingProduct current = existing.get(product.name());
+            long id;
+            if (current == null) {
+                id = nextId();
+                insertedIds.add(id);
+                counts.merge(categoryId, 1L, Long::sum);
+            } else {
+                id = current.id();
+                updatedIds.add(id);
+                if (categoryId != current.categoryId()) {
+                    counts.merge(current.categoryId(), -1L, Long::sum);
+                    counts.merge(categoryId, 1L, Long::sum);
+                }
+            }
+            parameters.addAll(List.of(id, product.name(), product.name(), product.price(), categoryId));
+        }
+        if (!rejected.isEmpty()) {
+            log.warn("Skipped {} products of batch {} with unknown category", rejected.size(), number);
+        }
+        if (parameters.isEmpty()) {
+            return new UpsertedBatch(new ProductUpsertResult(number, 0, 0, rejected), Set.of());
+        }
+
+        int rows = parameters.size() / 5;
+        String sql = UPSERT_PREFIX + String.join(", ", Collections.nCopies(rows, UPSERT_ROW)) + UPSERT_SUFFIX;
+        //affected rows: 1 per insert, 2 per update (version selalu berubah)
+        int updated = jdbcTemplate.update(sql, parameters.toArray()) - rows;
+        if (updated != updatedIds.size()) {
+            //insert yang jadi update (nama baru di-insert transaksi lain) atau update yang jadi insert (baris dihapus)
+            throw new ConcurrencyFailureException("Batch " + number + " expected " + updatedIds.size()
+                    + " updates but the database reported " + updated + ", products were changed concurrently");
+        }
+
+        List<Map.Entry<Long, Long>> deltas = counts.entrySet().stream().filter(entry -> entry.getValue() != 0).toList();
+        jdbcTemplate.batchUpdate(UPDATE_COUNT, deltas, deltas.size(), (statement, entry) -> {
+            statement.setLong(1, entry.getValue());
+            statement.setLong(2, entry.getKey());
+        });
+        outboxWriter.record("Product", insertedIds, ChangeType.CREATED);
+        outboxWriter.record("Product", updatedIds, ChangeType.UPDATED);
+        return new UpsertedBatch(new ProductUpsertResult(number, insertedIds.size(), updated, rejected), counts.keySet());
+    }
+
+    private Map<String, Long> findCategoryIds(List<ProductUpsert> batch) {
+        //nama category tidak unik, ambil id terkecil supaya hasilnya selalu sama
+        List<String> names = batch.stream().map(ProductUpsert::categoryName).distinct().toList();
+        Map<String, Long> categories = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (!names.isEmpty()) {
+            namedParameterJdbcTemplate.query(SELECT_CATEGORIES, Map.of("names", names), resultSet -> {
+                categories.put(resultSet.getString("name"), resultSet.getLong("id"));
+            });
+        }
+        return categories;
+    }
+
+    private Map<String, ExistingProduct> findExisting(List<ProductUpsert> batch) {
+        List<String> names = batch.stream().map(ProductUpsert::name).toList();
+        Map<String, ExistingProduct> existing = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        //urutan SELECT_EXISTING: pemegang name_key dulu, lalu id terkecil
+        namedParameterJdbcTemplate.query(SELECT_EXISTING, Map.of("names", names), resultSet -> {
+            existing.putIfAbsent(resultSet.getString("name"),
+                    new ExistingProduct(resultSet.getLong("id"), resultSet.getLong("category_id")));
+        });
+        return existing;
+    }
+
+    //id dari generator Hibernate (products_seq, pooled), supaya tidak bentrok dengan insert lewat entity
+    private long nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Product.class)
+                .getGenerator();
+        return (Long) generator.generate(session, null);
+    }
+
+    private record ExistingProduct(long id, long categoryId) {
+    }
+
+    private record UpsertedBatch(ProductUpsertResult result, Set<Long> categoryIds) {
+    }
+}
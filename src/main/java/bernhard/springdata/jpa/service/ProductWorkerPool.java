@@ -0,0 +1,152 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.config.WorkloadClass;
+import bernhard.springdata.jpa.config.WorkloadContext;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductWorkResult;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Processes every product of a category with a pool of workers that claim batches through
+ * {@link ProductRepository#claimProducts}. Several nodes can run the same category at once;
+ * each batch is processed by one worker only. The processor runs in the same transaction that
+ * marks the batch processed, and that transaction is rolled back when the lease was lost in the
+ * meantime, so a batch is never committed twice.
+ */
+@Slf4j
+@Service
+public class ProductWorkerPool {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Value("${app.work-queue.workers:4}")
+    private int defaultWorkers;
+
+    @Value("${app.work-queue.batch-size:100}")
+    private int defaultBatchSize;
+
+    @Value("${app.work-queue.lease:5m}")
+    private Duration defaultLease;
+
+    //owner unik per node, supaya claim dari node lain bisa dibedakan
+    private final String node = UUID.randomUUID().toString().substring(0, 8);
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    public ProductWorkResult processCategory(Long categoryId, Consumer<List<Product>> processor) {
+        return processCategory(categoryId, Instant.now(), defaultWorkers, defaultBatchSize, defaultLease, processor);
+    }
+
+    /**
+     * Runs until no product of the category processed before {@code processedBefore} can be
+     * claimed any more and returns the counts of this node only.
+     */
+    public ProductWorkResult processCategory(Long categoryId, Instant processedBefore, int workers, int batchSize,
+                                             Duration lease, Consumer<List<Product>> processor) {
+        if (workers <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("workers and batchSize must be positive");
+        }
+
+        int run = runs.incrementAndGet();
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "product-worker-" + run + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Counters counters = new Counters();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 1; i <= workers; i++) {
+                String owner = node + "-" + run + "-" + i;
+                //thread worker tidak mewarisi workload pemanggil
+                futures.add(executor.submit(() -> WorkloadContext.run(WorkloadClass.BATCH,
+                        () -> work(categoryId, owner, processedBefore, batchSize, lease, processor, counters))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Product worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new ProductWorkResult(counters.processed.get(), counters.batches.get(), counters.failedBatches.get(),
+                counters.lostBatches.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void work(Long categoryId, String owner, Instant processedBefore, int batchSize, Duration lease,
+                      Consumer<List<Product>> processor, Counters counters) {
+        while (true) {
+            List<Long> ids = productRepository.claimProducts(categoryId, owner, processedBefore, lease, batchSize);
+            if (ids.isEmpty()) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                //belum diproses, kembalikan supaya tidak menunggu lease habis
+                productRepository.releaseProducts(ids, owner);
+                return;
+            }
+
+            try {
+                Boolean completed = transactionOperations.execute(status -> {
+                    processor.accept(productRepository.findAllById(ids));
+                    if (productRepository.completeProducts(ids, owner, Instant.now()) < ids.size()) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                });
+                if (Boolean.TRUE.equals(completed)) {
+                    counters.processed.addAndGet(ids.size());
+                    counters.batches.incrementAndGet();
+                } else {
+                    log.warn("Lease of {} products expired before {} finished, batch rolled back", ids.size(), owner);
+                    counters.lostBatches.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                //lease dibiarkan sampai habis, batch yang gagal tidak langsung di-claim ulang terus-menerus
+                log.error("Failed to process {} products in {}", ids.size(), owner, e);
+                counters.failedBatches.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Counters {
+
+        private final AtomicLong processed = new AtomicLong();
+
+        private final AtomicInteger batches = new AtomicInteger();
+
+        private final AtomicInteger failedBatches = new AtomicInteger();
+
+        private final AtomicInteger lostBatches = new AtomicInteger();
+    }
+}
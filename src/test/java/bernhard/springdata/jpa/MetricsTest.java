@@ -0,0 +1,45 @@
+package bernhard.springdata.jpa;
+
+import bernhard.springdata.jpa.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class MetricsTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void repositoryTimer() {
+        productRepository.countByCategory_Name("GADGET MURAH");
+
+        Timer timer = meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "ProductRepository")
+                .tag("method", "countByCategory_Name")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() > 0);
+    }
+
+    @Test
+    void hibernateAndHikariMetrics() {
+        productRepository.findById(1L);
+
+        assertNotNull(meterRegistry.find("hibernate.query.executions.max").meter());
+        assertNotNull(meterRegistry.find("hibernate.entities.loads").meter());
+        assertNotNull(meterRegistry.find("hibernate.flushes").meter());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").meter());
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").timer());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+    }
+}
@@ -0,0 +1,27 @@
+package bernhard.springdata.jpa;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts JDBC statements prepared by Hibernate while a block runs, using the session factory
+ * statistics (hibernate.generate_statistics). Tests run one at a time, so the global counter
+ * only sees the block being measured.
+ */
+public class StatementCounter {
+
+    public static long count(EntityManagerFactory entityManagerFactory, Runnable runnable) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        runnable.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    public static void assertStatementsAtMost(EntityManagerFactory entityManagerFactory, long budget, Runnable runnable) {
+        long count = count(entityManagerFactory, runnable);
+        assertTrue(count <= budget, "expected at most " + budget + " statements but was " + count);
+    }
+}
@@ -0,0 +1,35 @@
+package bernhard.springdata.jpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+public class CacheConfigurationTest {
+
+    @Test
+    void cacheManagerPerContext() {
+        //dua application context di JVM yang sama (misalnya dua konfigurasi test) tidak boleh berbagi region
+        CacheManager first = cacheManager();
+        CacheManager second = cacheManager();
+        try {
+            assertNotSame(first, second);
+            assertNotNull(first.getCache(CacheConfiguration.CATEGORY_REGION));
+            assertNotNull(second.getCache(CacheConfiguration.CATEGORY_REGION));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    private CacheManager cacheManager() {
+        CacheConfiguration configuration = new CacheConfiguration();
+        ReflectionTestUtils.setField(configuration, "maximumSize", 100L);
+        ReflectionTestUtils.setField(configuration, "timeToLive", Duration.ofMinutes(1));
+        return configuration.hibernateCacheManager();
+    }
+}
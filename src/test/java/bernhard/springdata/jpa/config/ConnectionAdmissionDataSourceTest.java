@@ -0,0 +1,85 @@
+package bernhard.springdata.jpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plain JUnit on an in-memory H2 database, so it also runs on Java 17 where the virtual-thread
+ * configuration itself is never active.
+ */
+public class ConnectionAdmissionDataSourceTest {
+
+    private static final String URL = "jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void permitHeldUntilClose() throws SQLException {
+        ConnectionAdmissionDataSource dataSource = admission(URL, 2, Duration.ofMillis(100));
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        assertTrue(first.isClosed());
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        //close kedua kali tidak boleh melepas permit lagi
+        first.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        second.close();
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void waitingThreadAdmittedOnClose() throws Exception {
+        ConnectionAdmissionDataSource dataSource = admission(URL, 1, Duration.ofSeconds(10));
+        Connection connection = dataSource.getConnection();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        for (int i = 0; i < 100 && dataSource.getQueueLength() == 0; i++) {
+            Thread.sleep(10L);
+        }
+        assertEquals(1, dataSource.getQueueLength());
+        assertFalse(waiting.isDone());
+
+        connection.close();
+        try (Connection admitted = waiting.get(5, TimeUnit.SECONDS)) {
+            assertFalse(admitted.isClosed());
+            assertEquals(0, dataSource.getAvailablePermits());
+        }
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void permitReleasedWhenConnectFails() {
+        //IFEXISTS: database belum ada, driver menolak koneksi
+        ConnectionAdmissionDataSource dataSource = admission("jdbc:h2:mem:missing;IFEXISTS=TRUE", 1, Duration.ofMillis(100));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    private static ConnectionAdmissionDataSource admission(String url, int permits, Duration timeout) {
+        return new ConnectionAdmissionDataSource(new SimpleDriverDataSource(new org.h2.Driver(), url, "sa", ""), permits, timeout);
+    }
+}
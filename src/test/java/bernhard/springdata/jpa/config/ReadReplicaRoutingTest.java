@@ -0,0 +1,153 @@
+package bernhard.springdata.jpa.config;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two in-memory H2 databases stand in for the MySQL primary and replica. The replica gets the
+ * schema ddl-auto created on the primary, so it always matches the entities, and only the rows
+ * from replica.sql, so every query shows which database it went to. The workload pools of
+ * application.properties stay enabled and serve the primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.datasource.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL
+})
+public class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static boolean replicaCreated;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private WorkloadRoutingDataSource workloadRoutingDataSource;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private PlatformTransactionManager platformTransactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        if (!replicaCreated) {
+            createReplica();
+            replicaCreated = true;
+        }
+        replicaRoutingDataSource.checkHealth();
+        readOnly = new TransactionTemplate(platformTransactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void replicaIsHealthy() {
+        assertTrue(replicaRoutingDataSource.isHealthy(0));
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        List<String> names = readOnly.execute(status ->
+                jdbcTemplate.queryForList("select name from categories", String.class));
+        assertEquals(List.of("REPLICA"), names);
+    }
+
+    @Test
+    void writesAndLockingReadsGoToPrimary() {
+        Category category = new Category();
+        category.setName("PRIMARY");
+        categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setName("Primary Product");
+        product.setPrice(1L);
+        product.setCategory(category);
+        productRepository.save(product);
+
+        //query method di luar transaksi = readOnly = replica
+        assertTrue(productRepository.existsByName("Replica Product"));
+        assertFalse(productRepository.existsByName("Primary Product"));
+
+        transactionOperations.executeWithoutResult(status -> {
+            assertTrue(productRepository.findFirstById(product.getId()).isPresent());
+            assertFalse(productRepository.existsByName("Replica Product"));
+        });
+        assertTrue(productRepository.findFirstById(product.getId()).isPresent());
+    }
+
+    @Test
+    void primaryKeepsWorkloadPools() {
+        long oltp = workloadRoutingDataSource.getPool(WorkloadClass.OLTP).getConnectionCount();
+        long reporting = workloadRoutingDataSource.getPool(WorkloadClass.REPORTING).getConnectionCount();
+
+        Category category = new Category();
+        category.setName("WORKLOAD PRIMARY");
+        categoryRepository.save(category);
+        assertTrue(workloadRoutingDataSource.getPool(WorkloadClass.OLTP).getConnectionCount() > oltp);
+
+        //read-only reporting ke replica, pool reporting di primary tidak dipakai
+        List<String> names = WorkloadContext.call(WorkloadClass.REPORTING, () -> readOnly.execute(status ->
+                jdbcTemplate.queryForList("select name from categories", String.class)));
+        assertEquals(List.of("REPLICA"), names);
+        assertEquals(reporting, workloadRoutingDataSource.getPool(WorkloadClass.REPORTING).getConnectionCount());
+    }
+
+    @Test
+    void entitiesLoadFromReplica() {
+        readOnly.executeWithoutResult(status -> {
+            Product product = productRepository.findById(1000L).orElseThrow();
+            assertEquals("Replica Product", product.getName());
+            assertEquals("REPLICA", product.getCategory().getName());
+            assertEquals(1L, product.getCategory().getProductCount());
+        });
+    }
+
+    //SCRIPT NODATA = DDL semua tabel dan sequence yang dibuat ddl-auto di primary
+    private void createReplica() {
+        List<String> schema = transactionOperations.execute(status ->
+                jdbcTemplate.queryForList("script nodata", String.class));
+        JdbcTemplate replica = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), REPLICA_URL, "sa", ""));
+        replica.execute("drop all objects");
+        schema.stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("replica.sql"));
+        populator.execute(replica.getDataSource());
+    }
+}
@@ -0,0 +1,114 @@
+package bernhard.springdata.jpa.config;
+
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//threshold 0: semua statement dianggap lambat dan ditulis
+@SpringBootTest(properties = "app.sql-log.slow-threshold=0ms")
+@ExtendWith(OutputCaptureExtension.class)
+public class SqlLoggingTest {
+
+    @Autowired
+    private SqlLog sqlLog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void logStatementWithRepositoryMethod(CapturedOutput output) throws InterruptedException {
+        long written = sqlLog.getWrittenCount();
+        productRepository.findAllByCategory_Name("GADGET MURAH");
+
+        for (int i = 0; i < 50 && sqlLog.getWrittenCount() == written; i++) {
+            Thread.sleep(100L);
+        }
+
+        assertTrue(sqlLog.getWrittenCount() > written);
+        assertTrue(output.getOut().contains("repository=ProductRepository.findAllByCategory_Name"));
+        assertTrue(output.getOut().contains("params=\"[GADGET MURAH]\""));
+    }
+
+    @Test
+    void dropWhenBufferIsFull() throws InterruptedException {
+        try (SqlLog small = new SqlLog(Duration.ZERO, 0, 1)) {
+            for (int i = 0; i < 10_000; i++) {
+                small.submit(new SqlLog.Entry("select 1", List.of(), 0, 0, 1, 0, null, "test"));
+            }
+            assertTrue(small.getDroppedCount() > 0);
+        }
+    }
+
+    @Test
+    void countRowsOfExecuteAndGetResultSet() throws Exception {
+        List<SqlLog.Entry> entries = new CopyOnWriteArrayList<>();
+        try (SqlLog capture = capture(entries); Connection connection = dataSource(capture).getConnection();
+             Statement statement = connection.createStatement()) {
+            //Statement.getConnection() harus proxy, kalau tidak statement berikutnya tidak tercatat
+            assertSame(connection, statement.getConnection());
+
+            assertTrue(statement.execute("select x from system_range(1, 3)"));
+            try (ResultSet resultSet = statement.getResultSet()) {
+                assertSame(statement, resultSet.getStatement());
+                while (resultSet.next()) {
+                    //dibaca semua
+                }
+            }
+        }
+        assertEquals(1, entries.size());
+        assertEquals(3, entries.get(0).rows());
+    }
+
+    @Test
+    void logEveryBatchRow() throws Exception {
+        List<SqlLog.Entry> entries = new CopyOnWriteArrayList<>();
+        try (SqlLog capture = capture(entries); Connection connection = dataSource(capture).getConnection()) {
+            connection.createStatement().execute("create table if not exists sql_log_batch (id bigint, name varchar(10))");
+            entries.clear();
+            try (PreparedStatement statement = connection.prepareStatement("insert into sql_log_batch values (?, ?)")) {
+                for (long id = 1; id <= 3; id++) {
+                    statement.setLong(1, id);
+                    statement.setString(2, "row " + id);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+        assertEquals(1, entries.size());
+        assertEquals(3, entries.get(0).batchSize());
+        assertEquals(List.of(List.of(1L, "row 1"), List.of(2L, "row 2"), List.of(3L, "row 3")), entries.get(0).parameters());
+    }
+
+    //threshold 0 dan submit sinkron, entry langsung bisa diperiksa
+    private static SqlLog capture(List<SqlLog.Entry> entries) {
+        return new SqlLog(Duration.ZERO, 0, 1) {
+            @Override
+            public void submit(Entry entry) {
+                entries.add(entry);
+            }
+        };
+    }
+
+    private static SqlLoggingDataSource dataSource(SqlLog sqlLog) {
+        return new SqlLoggingDataSource(new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:sql-log;DB_CLOSE_DELAY=-1", "sa", ""), sqlLog);
+    }
+}
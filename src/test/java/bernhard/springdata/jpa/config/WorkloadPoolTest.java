@@ -0,0 +1,169 @@
+package bernhard.springdata.jpa.config;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.model.ExportFormat;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import bernhard.springdata.jpa.service.ProductExportService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uses an in-memory H2 database, the pools only differ in which workload they serve. Pools are
+ * resized by calling adjust() directly instead of waiting for the scheduler.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:workload;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.datasource.workload.enabled=true",
+        "app.datasource.workload.adjust-interval=1h",
+        "app.datasource.workload.reporting.minimum-size=1",
+        "app.datasource.workload.reporting.maximum-size=3"
+})
+public class WorkloadPoolTest {
+
+    @Autowired
+    private WorkloadRoutingDataSource workloadRoutingDataSource;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Test
+    void annotatedWorkRunsOnItsOwnPool() {
+        Category category = new Category();
+        category.setName("WORKLOAD");
+        categoryRepository.save(category);
+
+        long reporting = connections(WorkloadClass.REPORTING);
+        productExportService.export(category, ExportFormat.CSV, new ByteArrayOutputStream());
+        productRepository.searchProduct("%WORKLOAD%", PageRequest.of(0, 10));
+        assertTrue(connections(WorkloadClass.REPORTING) >= reporting + 2);
+
+        long batch = connections(WorkloadClass.BATCH);
+        WorkloadContext.call(WorkloadClass.BATCH, productRepository::count);
+        assertEquals(batch + 1, connections(WorkloadClass.BATCH));
+    }
+
+    @Test
+    void inheritedMethodUsesWorkloadOfTargetClass() throws NoSuchMethodException {
+        Method method = BaseJob.class.getMethod("execute");
+
+        assertEquals(WorkloadClass.REPORTING, WorkloadContext.resolve(method, ReportingJob.class));
+        assertEquals(WorkloadClass.BATCH, WorkloadContext.resolve(method, BatchJob.class));
+        assertNull(WorkloadContext.resolve(method, BaseJob.class));
+    }
+
+    @Test
+    void poolGrowsUnderContentionAndShrinksWhenIdle() throws Exception {
+        WorkloadRoutingDataSource.Pool pool = workloadRoutingDataSource.getPool(WorkloadClass.REPORTING);
+        assertEquals(1, pool.getSize());
+
+        CompletableFuture<Void> waiting;
+        try (Connection ignored = reportingConnection()) {
+            //pool penuh, thread kedua harus antre
+            waiting = CompletableFuture.runAsync(() -> {
+                try (Connection connection = reportingConnection()) {
+                    connection.isValid(1);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            while (pool.getDataSource().getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                Thread.sleep(10);
+            }
+
+            workloadRoutingDataSource.adjust();
+            assertEquals(2, pool.getSize());
+        }
+        waiting.get(5, TimeUnit.SECONDS);
+
+        //tanpa beban lagi, turun satu koneksi per adjust() sampai minimum-size
+        for (int i = 0; i < 5; i++) {
+            workloadRoutingDataSource.adjust();
+        }
+        assertEquals(1, pool.getSize());
+        assertTrue(pool.getShrunkCount() >= 1);
+    }
+
+    @Test
+    void admissionSizedToPoolMaximum() throws Exception {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:workload-admission;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(5_000);
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            WorkloadRoutingDataSource.Pool pool = new WorkloadRoutingDataSource.Pool(WorkloadClass.REPORTING, dataSource, 1, 3, true);
+            ConnectionAdmissionDataSource admission = (ConnectionAdmissionDataSource) pool.getConnectionSource();
+            assertEquals(3, admission.getAvailablePermits());
+
+            //permit menurut maximum-size, bukan ukuran sekarang: antrean tetap terlihat di Hikari supaya pool bisa tumbuh
+            try (Connection ignored = admission.getConnection()) {
+                CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+                    try (Connection connection = admission.getConnection()) {
+                        connection.isValid(1);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                while (dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                    Thread.sleep(10);
+                }
+                assertEquals(1, admission.getAvailablePermits());
+                dataSource.setMaximumPoolSize(2);
+                waiting.get(5, TimeUnit.SECONDS);
+            }
+            assertEquals(3, admission.getAvailablePermits());
+        }
+    }
+
+    private Connection reportingConnection() {
+        return WorkloadContext.call(WorkloadClass.REPORTING, () -> {
+            try {
+                return workloadRoutingDataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private long connections(WorkloadClass workload) {
+        return workloadRoutingDataSource.getPool(workload).getConnectionCount();
+    }
+
+    static class BaseJob {
+
+        public void execute() {
+        }
+    }
+
+    @Workload(WorkloadClass.REPORTING)
+    static class ReportingJob extends BaseJob {
+    }
+
+    @Workload(WorkloadClass.BATCH)
+    static class BatchJob extends BaseJob {
+    }
+}
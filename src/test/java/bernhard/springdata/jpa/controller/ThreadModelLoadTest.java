@@ -0,0 +1,91 @@
+package bernhard.springdata.jpa.controller;
+
+import bernhard.springdata.jpa.BelajarSpringDataJpaApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Jalankan di Java 21 dengan {@code mvn test -Dbenchmark=true -Dtest=ThreadModelLoadTest}.
+ * Starts the application once with platform threads and once with the "virtual-threads"
+ * profile, fires the same load at GET /products/1 and prints throughput and tail latency.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ThreadModelLoadTest {
+
+    private static final int REQUESTS = 20_000;
+
+    private static final int CONCURRENCY = 2_000;
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        run("platform", new String[0]);
+        run("virtual ", new String[]{"virtual-threads"});
+    }
+
+    private void run(String name, String[] profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BelajarSpringDataJpaApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0", "spring.jpa.properties.hibernate.show_sql=false")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/1")).build();
+
+            //warm up
+            load(client, request, 1_000);
+
+            long start = System.nanoTime();
+            List<Long> latencies = load(client, request, REQUESTS);
+            long elapsed = System.nanoTime() - start;
+
+            Collections.sort(latencies);
+            System.out.printf("%s: %,d req/s, p50 %,d us, p99 %,d us, p999 %,d us%n", name,
+                    REQUESTS * 1_000_000_000L / elapsed,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+        }
+    }
+
+    private List<Long> load(HttpClient client, HttpRequest request, int requests) throws Exception {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            long begin = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (error == null) {
+                            assertEquals(200, response.statusCode());
+                            latencies.add(System.nanoTime() - begin);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return new ArrayList<>(latencies);
+    }
+
+    private long percentile(List<Long> sorted, double percentile) {
+        return sorted.get((int) Math.ceil(sorted.size() * percentile) - 1) / 1_000;
+    }
+}
@@ -1,16 +1,21 @@
 package bernhard.springdata.jpa.repository;
 
+import bernhard.springdata.jpa.config.CacheConfiguration;
 import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.model.CacheStatistics;
+import bernhard.springdata.jpa.service.CacheStatisticsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 public class CategoryRepositoryTest {
@@ -18,6 +23,9 @@ public class CategoryRepositoryTest {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
     @Test
     void insert() {
         Category category = new Category();
@@ -77,4 +85,49 @@ public class CategoryRepositoryTest {
         List<Category> categories = categoryRepository.findAll(example);
         assertEquals(1,categories.size());
     }
+
+    @Test
+    void saveAllBatched() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Category category = new Category();
+            category.setName("Batch " + i);
+            categories.add(category);
+        }
+
+        categoryRepository.saveAllBatched(categories);
+        categories.forEach(category -> assertNotNull(category.getId()));
+        assertNotNull(categories.get(119).getCreatedDate());
+
+        categoryRepository.deleteAllInBatch(categories);
+    }
+
+    @Test
+    void queryCache() {
+        Category category = new Category();
+        category.setName("Cache Sample");
+        categoryRepository.save(category);
+
+        categoryRepository.findFirstByNameEquals("Cache Sample");
+        long hits = queryCacheHits();
+        categoryRepository.findFirstByNameEquals("Cache Sample");
+        assertTrue(queryCacheHits() > hits);
+
+        //save meng-invalidate query cache
+        category.setName("Cache Sample Updated");
+        categoryRepository.save(category);
+        assertTrue(categoryRepository.findFirstByNameEquals("Cache Sample").isEmpty());
+        assertEquals("Cache Sample Updated",
+                categoryRepository.findFirstByNameEquals("Cache Sample Updated").map(Category::getName).orElse(null));
+
+        categoryRepository.delete(category);
+        assertTrue(categoryRepository.findFirstByNameEquals("Cache Sample Updated").isEmpty());
+    }
+
+    private long queryCacheHits() {
+        return cacheStatisticsService.findAll().stream()
+                .filter(statistics -> statistics.region().equals(CacheConfiguration.CATEGORY_QUERY_REGION))
+                .mapToLong(CacheStatistics::hitCount)
+                .sum();
+    }
 }
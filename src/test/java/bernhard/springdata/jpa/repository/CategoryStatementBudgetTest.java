@@ -0,0 +1,123 @@
+package bernhard.springdata.jpa.repository;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.CategoryProductSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static bernhard.springdata.jpa.StatementCounter.assertStatementsAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class CategoryStatementBudgetTest {
+
+    private static final int CATEGORIES = 1_000;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size}")
+    private int batchFetchSize;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        //sisa run yang terhenti di tengah dibuang dulu, supaya jumlahnya selalu tepat CATEGORIES
+        deleteCategories(categoryRepository.findAllByNameLike("BATCH FETCH %").stream().map(Category::getId).toList());
+        ids = createCategories().stream().map(Category::getId).toList();
+
+        //category ada di second-level cache, kosongkan supaya N+1 tidak tertutupi cache
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteCategories(ids);
+    }
+
+    @Test
+    void walkProductsWithBatchFetch() {
+        //1 query categories + 1 query per batch collection products
+        long budget = 1 + (CATEGORIES + batchFetchSize - 1) / batchFetchSize;
+        assertStatementsAtMost(entityManagerFactory, budget, () -> transactionOperations.executeWithoutResult(status ->
+                categoryRepository.findAllById(ids).forEach(category -> category.getProducts().size())));
+    }
+
+    @Test
+    void loadWithProducts() {
+        assertStatementsAtMost(entityManagerFactory, 1, () -> transactionOperations.executeWithoutResult(status -> {
+            List<Category> categories = categoryRepository.findAllWithProductsByIdIn(ids);
+            assertEquals(CATEGORIES, categories.size());
+            categories.forEach(category -> assertEquals(2, category.getProducts().size()));
+        }));
+    }
+
+    @Test
+    void loadSummaries() {
+        assertStatementsAtMost(entityManagerFactory, 1, () -> {
+            List<CategoryProductSummary> summaries = categoryRepository.findProductSummaryByIdIn(ids);
+            assertEquals(CATEGORIES, summaries.size());
+            summaries.forEach(summary -> {
+                assertEquals(2L, summary.productCount());
+                assertEquals(1_000L, summary.minPrice());
+                assertEquals(2_000L, summary.maxPrice());
+            });
+        });
+    }
+
+    private List<Category> createCategories() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category();
+            category.setName(String.format("BATCH FETCH %04d", i));
+            categories.add(category);
+        }
+        categoryRepository.saveAllBatched(categories);
+
+        List<Product> products = new ArrayList<>();
+        for (Category category : categories) {
+            for (long price = 1_000; price <= 2_000; price += 1_000) {
+                Product product = new Product();
+                product.setName(category.getName() + " Product " + price);
+                product.setPrice(price);
+                product.setCategory(category);
+                products.add(product);
+            }
+        }
+        productRepository.saveAllBatched(products);
+        return categories;
+    }
+
+    //products dulu (foreign key), lewat deleteAllByIdInBatch supaya product_count dan outbox ikut
+    private void deleteCategories(List<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = categoryRepository.findAllWithProductsByIdIn(categoryIds).stream()
+                .flatMap(category -> category.getProducts().stream())
+                .map(Product::getId)
+                .toList();
+        productRepository.deleteAllByIdInBatch(productIds);
+        categoryRepository.deleteAllByIdInBatch(categoryIds);
+    }
+}
@@ -2,20 +2,31 @@ package bernhard.springdata.jpa.repository;
 
 import bernhard.springdata.jpa.entity.Category;
 import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductFilter;
 import bernhard.springdata.jpa.model.ProductPrice;
 import bernhard.springdata.jpa.model.SimpleProduct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -35,6 +46,12 @@ public class ProductRepositoryTest {
     @Autowired
     private TransactionOperations transactionOperations;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductFilterQueryCompiler productFilterQueryCompiler;
+
     @Test
     void createProduct() {
         Category category = categoryRepository.findById(1L).orElse(null);
@@ -298,6 +315,49 @@ public class ProductRepositoryTest {
         assertEquals(2, products.size());
     }
 
+    @Test
+    void filter() {
+        ProductFilter filter = ProductFilter.builder()
+                .nameLike("%Apple%")
+                .minPrice(0L)
+                .categoryIds(List.of(1L))
+                .sort(Sort.by(Sort.Order.desc("price")))
+                .limit(1)
+                .build();
+
+        Window<Product> first = productRepository.findAllByFilter(filter);
+        assertEquals(1, first.size());
+        assertTrue(first.hasNext());
+
+        Window<Product> second = productRepository.findAllByFilter(
+                filter.toBuilder().position((KeysetScrollPosition) first.positionAt(0)).build());
+        assertEquals(1, second.size());
+        assertFalse(second.hasNext());
+        assertTrue(first.getContent().get(0).getPrice() >= second.getContent().get(0).getPrice());
+
+        //shape sama, nilai beda: query yang sudah di-compile dipakai lagi
+        long hits = productFilterQueryCompiler.getHitCount();
+        productRepository.findAllByFilter(filter.toBuilder().nameLike("%Iphone%").minPrice(1L).build());
+        assertEquals(hits + 1, productFilterQueryCompiler.getHitCount());
+    }
+
+    @Test
+    void filterAfterNullKey() {
+        //NULL paling kecil: di asc semua harga setelahnya, di desc tidak ada lagi
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", null);
+        keys.put("id", 0L);
+        ProductFilter filter = ProductFilter.builder()
+                .categoryIds(List.of(1L))
+                .sort(Sort.by("price"))
+                .position(ScrollPosition.forward(keys))
+                .build();
+        assertEquals(2, productRepository.findAllByFilter(filter).size());
+
+        filter = filter.toBuilder().sort(Sort.by(Sort.Order.desc("price"))).build();
+        assertEquals(0, productRepository.findAllByFilter(filter).size());
+    }
+
     @Test
     void projection() {
         List<SimpleProduct> simpleProducts = productRepository.findAllByNameLike("%Apple%", SimpleProduct.class);
@@ -306,4 +366,65 @@ public class ProductRepositoryTest {
         List<ProductPrice> productPrices = productRepository.findAllByNameLike("%Apple%", ProductPrice.class);
         assertEquals(2, productPrices.size());
     }
+
+    @Test
+    void projectionEngine() {
+        transactionOperations.executeWithoutResult(status -> {
+            List<SimpleProduct> simpleProducts = productRepository.findAllProjectedByNameLike("%Apple%", SimpleProduct.class);
+            assertEquals(2, simpleProducts.size());
+
+            List<ProductPrice> productPrices = productRepository.findAllProjectedByNameLike("%Apple%", ProductPrice.class);
+            assertEquals(2, productPrices.size());
+
+            //tidak ada entity yang masuk persistence context
+            assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        });
+    }
+
+    /**
+     * Jalankan dengan {@code mvn test -Dbenchmark=true}. Inserts 100k products one save() per
+     * transaction and then with saveAllBatched, and prints inserts per second for both.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkBatchInsert() {
+        Category category = categoryRepository.findById(1L).orElse(null);
+        assertNotNull(category);
+        int rows = 100_000;
+
+        List<Product> products = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            products.add(productRepository.save(newBenchmarkProduct(category, i)));
+        }
+        long singleNanos = System.nanoTime() - start;
+        deleteBenchmarkProducts(products);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            products.add(newBenchmarkProduct(category, i));
+        }
+        start = System.nanoTime();
+        productRepository.saveAllBatched(products);
+        long batchedNanos = System.nanoTime() - start;
+        deleteBenchmarkProducts(products);
+
+        System.out.printf("save()         : %,d inserts/s%n", rows * 1_000_000_000L / singleNanos);
+        System.out.printf("saveAllBatched : %,d inserts/s%n", rows * 1_000_000_000L / batchedNanos);
+    }
+
+    private void deleteBenchmarkProducts(List<Product> products) {
+        List<Long> ids = products.stream().map(Product::getId).toList();
+        for (int i = 0; i < ids.size(); i += 1_000) {
+            productRepository.deleteAllByIdInBatch(ids.subList(i, Math.min(i + 1_000, ids.size())));
+        }
+    }
+
+    private Product newBenchmarkProduct(Category category, int i) {
+        Product product = new Product();
+        product.setName("Batch Benchmark " + i);
+        product.setPrice((long) i);
+        product.setCategory(category);
+        return product;
+    }
 }
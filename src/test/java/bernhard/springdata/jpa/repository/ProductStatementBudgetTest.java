@@ -0,0 +1,66 @@
+package bernhard.springdata.jpa.repository;
+
+import bernhard.springdata.jpa.entity.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+
+import static bernhard.springdata.jpa.StatementCounter.assertStatementsAtMost;
+
+@SpringBootTest
+public class ProductStatementBudgetTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @BeforeEach
+    void setUp() {
+        //category ada di second-level cache, kosongkan supaya N+1 tidak tertutupi cache
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void productsOnly() {
+        assertStatementsAtMost(entityManagerFactory, 1, () -> transactionOperations.executeWithoutResult(status ->
+                productRepository.findAllByCategory_Name("GADGET MURAH").forEach(Product::getName)));
+
+        assertStatementsAtMost(entityManagerFactory, 1, () -> transactionOperations.executeWithoutResult(status ->
+                productRepository.searchProductUsingName("Apple Iphone 14 Pro Max").forEach(Product::getName)));
+
+        assertStatementsAtMost(entityManagerFactory, 2, () -> transactionOperations.executeWithoutResult(status ->
+                productRepository.searchProduct("%Iphone%", PageRequest.of(0, 10)).forEach(Product::getName)));
+    }
+
+    @Test
+    void productsWithCategory() {
+        assertStatementsAtMost(entityManagerFactory, 1, () -> transactionOperations.executeWithoutResult(status ->
+                readCategories(productRepository.findAllWithCategoryByCategory_Name("GADGET MURAH"))));
+
+        assertStatementsAtMost(entityManagerFactory, 2, () -> transactionOperations.executeWithoutResult(status ->
+                readCategories(productRepository.findAllWithCategoryByCategory_Name(
+                        "GADGET MURAH", PageRequest.of(0, 10, Sort.by("id"))).getContent())));
+
+        assertStatementsAtMost(entityManagerFactory, 1, () -> transactionOperations.executeWithoutResult(status ->
+                readCategories(productRepository.searchProductWithCategoryUsingName("Apple Iphone 14 Pro Max"))));
+
+        assertStatementsAtMost(entityManagerFactory, 2, () -> transactionOperations.executeWithoutResult(status ->
+                readCategories(productRepository.searchProductWithCategory("%Iphone%", PageRequest.of(0, 10)).getContent())));
+    }
+
+    private void readCategories(List<Product> products) {
+        products.forEach(product -> product.getCategory().getName());
+    }
+}
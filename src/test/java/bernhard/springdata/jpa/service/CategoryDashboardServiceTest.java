@@ -0,0 +1,88 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.model.CategoryDashboard;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class CategoryDashboardServiceTest {
+
+    @Autowired
+    private CategoryDashboardService categoryDashboardService;
+
+    @Autowired
+    private FanOutQueryExecutor fanOutQueryExecutor;
+
+    @Value("${app.fan-out.max-connections}")
+    private int maxConnections;
+
+    @Test
+    void load() {
+        CategoryDashboard dashboard = categoryDashboardService.load("GADGET MURAH", PageRequest.of(0, 10),
+                "Apple Iphone 14 Pro Max", "%Apple%");
+
+        assertTrue(dashboard.missing().isEmpty());
+        assertEquals(dashboard.productCount(), dashboard.products().getTotalElements());
+        //di luar transaksi: category harus sudah ikut di-load
+        assertEquals("GADGET MURAH", dashboard.products().getContent().get(0).getCategory().getName());
+        assertTrue(dashboard.productExists());
+        assertFalse(dashboard.matches().isEmpty());
+    }
+
+    @Test
+    void partialResultOnTimeout() {
+        FanOutQueryExecutor.FanOut fanOut = fanOutQueryExecutor.fanOut(Duration.ofMillis(200), Duration.ofSeconds(1));
+        FanOutQueryExecutor.Call<String> fast = fanOut.submit("fast", () -> "ok");
+        FanOutQueryExecutor.Call<String> slow = fanOut.submit("slow", () -> {
+            sleep(2_000);
+            return "late";
+        });
+
+        Map<String, Throwable> missing = fanOut.await();
+
+        assertEquals(List.of("slow"), List.copyOf(missing.keySet()));
+        assertEquals("ok", fast.get().orElse(null));
+        assertTrue(slow.isMissing());
+    }
+
+    @Test
+    void connectionCap() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        FanOutQueryExecutor.FanOut fanOut = fanOutQueryExecutor.fanOut(Duration.ofSeconds(5), Duration.ofSeconds(5));
+        List<FanOutQueryExecutor.Call<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < maxConnections * 3; i++) {
+            calls.add(fanOut.submit("call-" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(50);
+                return running.decrementAndGet();
+            }));
+        }
+
+        assertTrue(fanOut.await().isEmpty());
+        assertTrue(calls.stream().noneMatch(FanOutQueryExecutor.Call::isMissing));
+        assertTrue(maxRunning.get() <= maxConnections);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ChangeType;
+import bernhard.springdata.jpa.model.EntityChangedEvent;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//relay terjadwal dimatikan supaya semua event dikirim dari thread test
+@SpringBootTest(properties = "app.outbox.poll-interval=1h")
+@RecordApplicationEvents
+public class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    void relayEntityAndBulkChanges() {
+        outboxRelay.relay();
+        applicationEvents.clear();
+
+        Category category = new Category();
+        category.setName("OUTBOX");
+        categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setName("Outbox Product");
+        product.setPrice(1_000L);
+        product.setCategory(category);
+        productRepository.save(product);
+
+        product.setPrice(2_000L);
+        productRepository.save(product);
+        productRepository.updateProductPriceToZero(product.getId());
+        productRepository.deleteProductUsingName("Outbox Product");
+
+        outboxRelay.relay();
+
+        List<ChangeType> productChanges = applicationEvents.stream(EntityChangedEvent.class)
+                .filter(event -> event.aggregateType().equals("Product") && event.aggregateId() == product.getId())
+                .map(EntityChangedEvent::type)
+                .toList();
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.UPDATED, ChangeType.DELETED), productChanges);
+        assertEquals(1, applicationEvents.stream(EntityChangedEvent.class)
+                .filter(event -> event.aggregateType().equals("Category") && event.aggregateId() == category.getId())
+                .count());
+
+        //sudah di-checkpoint, tidak dikirim lagi
+        assertEquals(0, outboxRelay.relay());
+    }
+
+    @Test
+    void everyEventRelayedByOneNodeOnly() {
+        outboxRelay.relay();
+        List<Long> ids = LongStream.rangeClosed(1, 2_000).boxed().toList();
+        transactionOperations.executeWithoutResult(status -> outboxWriter.record("Outbox Test", ids, ChangeType.UPDATED));
+
+        //relay node kedua: instance terpisah, relayLock tidak dipakai bersama
+        OutboxRelay otherNode = beanFactory.createBean(OutboxRelay.class);
+        try {
+            CompletableFuture<Long> first = CompletableFuture.supplyAsync(outboxRelay::relay);
+            CompletableFuture<Long> second = CompletableFuture.supplyAsync(otherNode::relay);
+            assertEquals(ids.size(), first.join() + second.join());
+            assertEquals(0, outboxRelay.relay() + otherNode.relay());
+        } finally {
+            beanFactory.destroyBean(otherNode);
+        }
+    }
+}
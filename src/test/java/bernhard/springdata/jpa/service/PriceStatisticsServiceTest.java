@@ -0,0 +1,153 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.CategoryProductSummary;
+import bernhard.springdata.jpa.model.ChangeType;
+import bernhard.springdata.jpa.model.PriceStatistics;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//relay dan apply terjadwal dimatikan, semua perubahan diterapkan dari thread test
+@SpringBootTest(properties = {
+        "app.outbox.poll-interval=1h",
+        "app.price-statistics.apply-interval=1h"
+})
+public class PriceStatisticsServiceTest {
+
+    @Autowired
+    private PriceStatisticsService priceStatisticsService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteProductUsingName("Price Statistics");
+        category = categoryRepository.findFirstByNameEquals("PRICE STATISTICS").orElseGet(() -> {
+            Category value = new Category();
+            value.setName("PRICE STATISTICS");
+            return categoryRepository.save(value);
+        });
+        priceStatisticsService.rebuild();
+    }
+
+    @Test
+    void incrementalUpdates() {
+        List<Product> products = new ArrayList<>();
+        for (long price = 1_000; price <= 3_000; price += 1_000) {
+            Product product = new Product();
+            product.setName("Price Statistics");
+            product.setPrice(price);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAllBatched(products);
+        applyChanges();
+        assertStatistics(3, 6_000, 1_000, 3_000);
+
+        //bulk update, hanya lewat outbox
+        productRepository.updateProductPriceToZero(products.get(1).getId());
+        applyChanges();
+        assertStatistics(3, 4_000, 0, 3_000);
+
+        //max terhapus, max baru diambil dari database
+        productRepository.deleteById(products.get(2).getId());
+        applyChanges();
+        assertStatistics(2, 1_000, 0, 1_000);
+
+        List<CategoryProductSummary> summaries = categoryRepository.findProductSummaryByIdIn(List.of(category.getId()));
+        PriceStatistics statistics = priceStatisticsService.findByCategoryId(category.getId()).orElseThrow();
+        assertEquals(summaries.get(0).minPrice(), statistics.minPrice());
+        assertEquals(summaries.get(0).maxPrice(), statistics.maxPrice());
+        assertEquals(summaries.get(0).averagePrice(), statistics.averagePrice(), 0.001);
+
+        //rebuild memberi hasil yang sama
+        priceStatisticsService.rebuild();
+        assertEquals(statistics, priceStatisticsService.findByCategoryId(category.getId()).orElseThrow());
+    }
+
+    @Test
+    void repeatedEventsAreIgnored() {
+        Product product = new Product();
+        product.setName("Price Statistics");
+        product.setPrice(5_000L);
+        product.setCategory(category);
+        productRepository.save(product);
+        applyChanges();
+
+        //at-least-once: perubahan yang sama dicatat ulang tidak mengubah hasil
+        transactionOperations.executeWithoutResult(status ->
+                outboxWriter.record("Product", List.of(product.getId()), ChangeType.CREATED));
+        applyChanges();
+        assertStatistics(1, 5_000, 5_000, 5_000);
+        assertTrue(priceStatisticsService.isReady());
+    }
+
+    @Test
+    void everyNodeSeesEveryChange() {
+        //node kedua: instance terpisah dengan cursor sendiri, seperti aplikasi di node lain
+        PriceStatisticsService otherNode = beanFactory.createBean(PriceStatisticsService.class);
+        try {
+            otherNode.rebuild();
+
+            Product product = new Product();
+            product.setName("Price Statistics");
+            product.setPrice(7_000L);
+            product.setCategory(category);
+            productRepository.save(product);
+
+            //relay sudah mengirim (dan menandai) barisnya sebelum kedua node membaca
+            outboxRelay.relay();
+            priceStatisticsService.applyPending();
+            otherNode.applyPending();
+
+            assertStatistics(1, 7_000, 7_000, 7_000);
+            assertEquals(priceStatisticsService.findByCategoryId(category.getId()),
+                    otherNode.findByCategoryId(category.getId()));
+        } finally {
+            beanFactory.destroyBean(otherNode);
+        }
+    }
+
+    private void applyChanges() {
+        priceStatisticsService.applyPending();
+    }
+
+    private void assertStatistics(long count, long sum, long min, long max) {
+        PriceStatistics statistics = priceStatisticsService.findByCategoryId(category.getId()).orElseThrow();
+        assertEquals(count, statistics.productCount());
+        assertEquals(sum, statistics.sumPrice());
+        assertEquals(min, statistics.minPrice());
+        assertEquals(max, statistics.maxPrice());
+    }
+}
@@ -0,0 +1,91 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "app.price.write-behind.max-buffered=3")
+public class PriceWriteBehindServiceTest {
+
+    @Autowired
+    private PriceWriteBehindService priceWriteBehindService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void coalesceUpdates() {
+        priceWriteBehindService.flush();
+        long written = priceWriteBehindService.getWrittenCount();
+
+        for (long price = 1; price <= 1_000; price++) {
+            priceWriteBehindService.submit(1L, price);
+            priceWriteBehindService.submit(2L, price * 2);
+        }
+
+        //belum di-flush, tapi tetap terbaca
+        assertEquals(1_000L, priceWriteBehindService.findPrice(1L).orElse(null));
+
+        assertEquals(2, priceWriteBehindService.flush());
+        assertEquals(written + 2, priceWriteBehindService.getWrittenCount());
+        assertEquals(0, priceWriteBehindService.getPendingCount());
+
+        assertEquals(1_000L, productRepository.findById(1L).map(Product::getPrice).orElse(null));
+        assertEquals(2_000L, productRepository.findById(2L).map(Product::getPrice).orElse(null));
+    }
+
+    @Test
+    void flushPeriodically() throws InterruptedException {
+        priceWriteBehindService.submit(1L, 25_000_000L);
+
+        for (int i = 0; i < 50 && priceWriteBehindService.getPendingCount() > 0; i++) {
+            Thread.sleep(100L);
+        }
+
+        assertTrue(priceWriteBehindService.getPendingCount() == 0);
+        assertEquals(25_000_000L, productRepository.findById(1L).map(Product::getPrice).orElse(null));
+    }
+
+    @Test
+    void boundedBuffer() {
+        Category category = categoryRepository.findById(1L).orElseThrow();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product();
+            product.setName("Write Behind " + i);
+            product.setPrice(0L);
+            product.setCategory(category);
+            products.add(productRepository.save(product));
+        }
+
+        try {
+            for (Product product : products) {
+                priceWriteBehindService.submit(product.getId(), 100L + product.getId());
+                //product baru di atas batas ditulis langsung oleh submit
+                assertTrue(priceWriteBehindService.getPendingCount() <= 3);
+            }
+            priceWriteBehindService.flush();
+
+            for (Product product : products) {
+                assertEquals(100L + product.getId(), productRepository.findById(product.getId()).map(Product::getPrice).orElse(null));
+            }
+        } finally {
+            for (int i = 0; i < 10; i++) {
+                productRepository.deleteProductUsingName("Write Behind " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.BulkDeleteOptions;
+import bernhard.springdata.jpa.model.BulkDeleteProgress;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+public class ProductBulkDeleteServiceTest {
+
+    @Autowired
+    private ProductBulkDeleteService productBulkDeleteService;
+
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void deleteInChunks() {
+        long before = insertProducts(25);
+
+        List<BulkDeleteProgress> progress = new ArrayList<>();
+        long deleted = productBulkDeleteService.deleteByName("Bulk Delete", BulkDeleteOptions.builder()
+                .chunkSize(10)
+                .pause(Duration.ofMillis(10))
+                .progress(progress::add)
+                .build());
+
+        assertEquals(25, deleted);
+        assertEquals(List.of(10, 10, 5), progress.stream().map(value -> value.deletedIds().size()).toList());
+        assertEquals(25, progress.get(2).totalDeleted());
+        assertFalse(productRepository.existsByName("Bulk Delete"));
+        assertEquals(before, productCountService.countByCategoryName("GADGET MURAH"));
+    }
+
+    @Test
+    void deleteWithLifecycleEvents() {
+        long before = insertProducts(15);
+
+        long deleted = productBulkDeleteService.deleteByName("Bulk Delete", BulkDeleteOptions.builder()
+                .chunkSize(10)
+                .lifecycleEvents(true)
+                .build());
+
+        assertEquals(15, deleted);
+        assertFalse(productRepository.existsByName("Bulk Delete"));
+        assertEquals(before, productCountService.countByCategoryName("GADGET MURAH"));
+    }
+
+    private long insertProducts(int total) {
+        Category category = categoryRepository.findById(1L).orElse(null);
+        assertNotNull(category);
+
+        productBulkDeleteService.deleteByName("Bulk Delete");
+        long before = productCountService.countByCategoryName("GADGET MURAH");
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            Product product = new Product();
+            product.setName("Bulk Delete");
+            product.setPrice(1_000L);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAllBatched(products);
+        return before;
+    }
+}
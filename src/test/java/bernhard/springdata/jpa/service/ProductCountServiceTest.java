@@ -0,0 +1,117 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ProductCountServiceTest {
+
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.findFirstByNameEquals("COUNTER").orElseGet(() -> {
+            Category value = new Category();
+            value.setName("COUNTER");
+            return categoryRepository.save(value);
+        });
+        productRepository.deleteProductUsingName("Counter Product");
+    }
+
+    @Test
+    void countMaintainedByEvents() {
+        long before = productCountService.countByCategoryName("COUNTER");
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product();
+            product.setName("Counter Product");
+            product.setPrice(1_000L);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAllBatched(products);
+
+        assertEquals(before + 10, productCountService.countByCategoryName("COUNTER"));
+        assertEquals(productRepository.countByCategory_Name("COUNTER"),
+                productCountService.countByCategoryName("COUNTER"));
+
+        productRepository.delete(productRepository.searchProductUsingName("Counter Product").get(0));
+        assertEquals(before + 9, productCountService.countByCategoryName("COUNTER"));
+
+        assertEquals(9, productRepository.deleteProductUsingName("Counter Product"));
+        assertEquals(before, productCountService.countByCategoryName("COUNTER"));
+    }
+
+    @Test
+    void countMaintainedByBatchDelete() {
+        long before = productCountService.countByCategoryName("COUNTER");
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Product product = new Product();
+            product.setName("Counter Product");
+            product.setPrice(1_000L);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAllBatched(products);
+        assertEquals(before + 10, productCountService.countByCategoryName("COUNTER"));
+
+        //versi bawaan JpaRepository hanya DELETE, tanpa counter
+        productRepository.deleteAllInBatch(products.subList(0, 4));
+        assertEquals(before + 6, productCountService.countByCategoryName("COUNTER"));
+
+        productRepository.deleteAllByIdInBatch(products.subList(4, 10).stream().map(Product::getId).toList());
+        assertEquals(before, productCountService.countByCategoryName("COUNTER"));
+        assertEquals(productRepository.countByCategory_Name("COUNTER"),
+                productCountService.countByCategoryName("COUNTER"));
+    }
+
+    @Test
+    void pageUsesCounter() {
+        Page<Product> page = productCountService.findAllByCategoryName("GADGET MURAH",
+                PageRequest.of(0, 1, Sort.by(Sort.Order.desc("id"))));
+
+        assertEquals(1, page.getContent().size());
+        assertEquals(productRepository.countByCategory_Name("GADGET MURAH"), page.getTotalElements());
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        long expected = productRepository.countByCategory_Name("COUNTER");
+        jdbcTemplate.update("update categories set product_count = product_count + 100 where id = ?", category.getId());
+
+        assertTrue(productCountService.reconcile() >= 1);
+        assertEquals(expected, productCountService.countByCategoryName("COUNTER"));
+        assertEquals(expected, categoryRepository.findById(category.getId()).map(Category::getProductCount).orElse(null));
+    }
+}
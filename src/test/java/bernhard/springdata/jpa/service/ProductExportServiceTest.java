@@ -0,0 +1,134 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ExportFormat;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ProductExportServiceTest {
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportCsv() {
+        Category category = categoryRepository.findById(1L).orElse(null);
+        assertNotNull(category);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long total = productExportService.export(category, ExportFormat.CSV, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, total);
+        assertEquals(3, lines.length);
+        assertEquals("id,name,price,category_id", lines[0]);
+    }
+
+    @Test
+    void exportNdjson() throws Exception {
+        Category category = categoryRepository.findById(1L).orElse(null);
+        assertNotNull(category);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long total = productExportService.export(category, ExportFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, total);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":"));
+        //satu generator untuk semua baris, tiap baris tetap satu object lengkap
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            assertEquals(category.getId(), node.get("categoryId").asLong());
+            assertTrue(node.get("price").isNumber());
+        }
+    }
+
+    /**
+     * Jalankan dengan {@code mvn test -Dbenchmark=true -Dexport.rows=2000000}. Streams the whole
+     * EXPORT category to a discarding output stream and samples used heap after GC while rows
+     * are being written; used heap must stay far below what the full result set would need.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void exportHeapStaysBounded() {
+        long rows = Long.getLong("export.rows", 2_000_000L);
+        Category category = seedExportCategory(rows);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        long[] maxUsed = {0};
+
+        OutputStream sampling = new OutputStream() {
+            private long lines = 0;
+
+            @Override
+            public void write(int b) {
+                if (b == '\n' && ++lines % 200_000 == 0) {
+                    System.gc();
+                    maxUsed[0] = Math.max(maxUsed[0], runtime.totalMemory() - runtime.freeMemory());
+                }
+            }
+        };
+
+        long total = productExportService.export(category, ExportFormat.NDJSON, sampling);
+        long growth = maxUsed[0] - baseline;
+        System.out.printf("Exported %,d rows, heap growth %,d KB%n", total, growth / 1024);
+
+        assertEquals(rows, total);
+        assertTrue(growth < 64L * 1024 * 1024, "heap grew by " + growth + " bytes");
+    }
+
+    private Category seedExportCategory(long rows) {
+        Category category = categoryRepository.findFirstByNameEquals("EXPORT").orElseGet(() -> {
+            Category newCategory = new Category();
+            newCategory.setName("EXPORT");
+            return categoryRepository.save(newCategory);
+        });
+
+        long missing = rows - productRepository.countByCategory_Name("EXPORT");
+        List<Product> products = new ArrayList<>();
+        for (long i = 0; i < missing; i++) {
+            Product product = new Product();
+            product.setName("Export " + i);
+            product.setPrice(i);
+            product.setCategory(category);
+            products.add(product);
+
+            if (products.size() == 10_000) {
+                productRepository.saveAllBatched(products);
+                products = new ArrayList<>();
+            }
+        }
+        productRepository.saveAllBatched(products);
+        return category;
+    }
+}
@@ -0,0 +1,118 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ProductPriceServiceTest {
+
+    @Autowired
+    private ProductPriceService productPriceService;
+
+    @Autowired
+    private OptimisticLockRetryTemplate optimisticLockRetryTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Test
+    void updatePriceIncrementsVersion() {
+        Product before = productRepository.findById(1L).orElse(null);
+        assertNotNull(before);
+
+        Product after = productPriceService.updatePrice(1L, before.getPrice() + 1);
+        assertEquals(before.getVersion() + 1, after.getVersion());
+    }
+
+    @Test
+    void retryAfterConcurrentUpdate() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        optimisticLockRetryTemplate.execute(status -> {
+            Product product = productRepository.findById(1L).orElse(null);
+            assertNotNull(product);
+
+            if (attempts.incrementAndGet() == 1) {
+                //writer lain commit duluan, versi yang kita pegang jadi basi
+                CompletableFuture.runAsync(() -> productPriceService.updatePrice(1L, 1L)).join();
+            }
+            product.setPrice(20_000_000L);
+            return product;
+        });
+
+        assertEquals(2, attempts.get());
+        assertEquals(20_000_000L, productRepository.findById(1L).map(Product::getPrice).orElse(null));
+    }
+
+    @Test
+    void rejectInsideTransaction() {
+        assertThrows(IllegalStateException.class, () -> transactionOperations.executeWithoutResult(status ->
+                productPriceService.updatePrice(1L, 1L)));
+    }
+
+    /**
+     * Jalankan dengan {@code mvn test -Dbenchmark=true}. Hammers the two fixture products with
+     * 8/32/128 concurrent writers, once with PESSIMISTIC_WRITE and once with @Version + retry,
+     * and prints throughput and p99 latency for each.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkPessimisticVersusOptimistic() throws Exception {
+        for (int writers : new int[]{8, 32, 128}) {
+            run("pessimistic", writers, (id, price) -> productPriceService.updatePriceLocked(id, price));
+            run("optimistic ", writers, (id, price) -> productPriceService.updatePrice(id, price));
+        }
+    }
+
+    private void run(String name, int writers, BiConsumer<Long, Long> update) throws Exception {
+        int updatesPerWriter = 50;
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            long id = 1L + (w % 2);
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < updatesPerWriter; i++) {
+                    long begin = System.nanoTime();
+                    update.accept(id, (long) i);
+                    latencies.add(System.nanoTime() - begin);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) (sorted.size() * 0.99) - 1);
+        assertTrue(sorted.size() == writers * updatesPerWriter);
+
+        System.out.printf("%s writers=%3d : %,8d updates/s, p99 %,d us%n", name, writers,
+                sorted.size() * 1_000_000_000L / elapsed, p99 / 1_000);
+    }
+}
@@ -0,0 +1,179 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductWindow;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ProductScrollServiceTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final int DEEP_PAGE = 10_000;
+
+    @Autowired
+    private ProductScrollService productScrollService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void scrollByCategoryName() {
+        ProductWindow window = productScrollService.findAllByCategoryName(
+                "GADGET MURAH", Sort.by(Sort.Order.desc("id")), 1, null);
+        assertEquals(1, window.content().size());
+        assertEquals("Apple Iphone 13 Pro Max", window.content().get(0).getName());
+        assertTrue(window.hasNext());
+        assertNotNull(window.nextToken());
+
+        window = productScrollService.findAllByCategoryName(
+                "GADGET MURAH", Sort.by(Sort.Order.desc("id")), 1, window.nextToken());
+        assertEquals(1, window.content().size());
+        assertEquals("Apple Iphone 14 Pro Max", window.content().get(0).getName());
+    }
+
+    @Test
+    void scrollSearchVisitsEveryRowOnce() {
+        Set<Long> ids = new HashSet<>();
+        String token = null;
+        do {
+            ProductWindow window = productScrollService.searchProduct("%Iphone%", Sort.by("price"), 1, token);
+            window.content().forEach(product -> assertTrue(ids.add(product.getId())));
+            token = window.nextToken();
+        } while (token != null);
+
+        assertEquals(2, ids.size());
+    }
+
+    @Test
+    void scrollByCategory() {
+        Category category = categoryRepository.findById(1L).orElse(null);
+        assertNotNull(category);
+
+        ProductWindow window = productScrollService.findAllByCategory(category, Sort.by("name"), 10, null);
+        assertEquals(2, window.content().size());
+        assertFalse(window.hasNext());
+    }
+
+    @Test
+    void invalidToken() {
+        assertThrows(IllegalArgumentException.class, () ->
+                productScrollService.findAllByCategoryName("GADGET MURAH", Sort.by("id"), 1, "bukan-token"));
+        assertThrows(IllegalArgumentException.class, () ->
+                productScrollService.findAllByCategoryName("GADGET MURAH", Sort.by("category"), 1, null));
+    }
+
+    @Test
+    void tokenBoundToSort() {
+        ProductWindow window = productScrollService.findAllByCategoryName("GADGET MURAH", Sort.by("price"), 1, null);
+        assertNotNull(window.nextToken());
+
+        assertThrows(IllegalArgumentException.class, () -> productScrollService.findAllByCategoryName(
+                "GADGET MURAH", Sort.by(Sort.Order.desc("price")), 1, window.nextToken()));
+        assertThrows(IllegalArgumentException.class, () -> productScrollService.findAllByCategoryName(
+                "GADGET MURAH", Sort.by("name"), 1, window.nextToken()));
+    }
+
+    @Test
+    void nullSortKey() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", null);
+        keys.put("id", 0L);
+        Sort sort = Sort.by("price", "id");
+        String token = ProductScrollService.encode(ScrollPosition.forward(keys), sort);
+        assertEquals(keys, ProductScrollService.decode(token, sort).getKeys());
+
+        //NULL paling kecil, jadi semua product di category ada setelahnya
+        ProductWindow window = productScrollService.findAllByCategoryName("GADGET MURAH", sort, 10, token);
+        assertEquals(2, window.content().size());
+    }
+
+    /**
+     * Jalankan dengan {@code mvn test -Dbenchmark=true}. Seeds the BENCHMARK category with
+     * enough rows for page 10.000 and prints latency of OFFSET paging vs keyset paging.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkDeepPage() {
+        Category category = seedBenchmarkCategory();
+        Sort sort = Sort.by("id");
+
+        Pageable firstPage = PageRequest.of(0, PAGE_SIZE, sort);
+        Pageable deepPage = PageRequest.of(DEEP_PAGE, PAGE_SIZE, sort);
+
+        long pageFirst = time(() -> productRepository.findAllByCategory_Name("BENCHMARK", firstPage));
+        long pageDeep = time(() -> productRepository.findAllByCategory_Name("BENCHMARK", deepPage));
+        long sliceFirst = time(() -> productRepository.findAllByCategory(category, firstPage));
+        long sliceDeep = time(() -> productRepository.findAllByCategory(category, deepPage));
+
+        //token untuk halaman 10.000 = id terakhir di halaman sebelumnya
+        Long lastId = productRepository.findAllByCategory(category, PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE, sort))
+                .getContent().get(PAGE_SIZE - 1).getId();
+        String deepToken = ProductScrollService.encode(ScrollPosition.forward(Map.of("id", lastId)), sort);
+
+        long keysetFirst = time(() -> productScrollService.findAllByCategoryName("BENCHMARK", sort, PAGE_SIZE, null));
+        long keysetDeep = time(() -> productScrollService.findAllByCategoryName("BENCHMARK", sort, PAGE_SIZE, deepToken));
+
+        System.out.printf("Page   : page 1 = %d us, page %d = %d us%n", pageFirst, DEEP_PAGE, pageDeep);
+        System.out.printf("Slice  : page 1 = %d us, page %d = %d us%n", sliceFirst, DEEP_PAGE, sliceDeep);
+        System.out.printf("Keyset : page 1 = %d us, page %d = %d us%n", keysetFirst, DEEP_PAGE, keysetDeep);
+    }
+
+    private Category seedBenchmarkCategory() {
+        Category category = categoryRepository.findFirstByNameEquals("BENCHMARK").orElseGet(() -> {
+            Category newCategory = new Category();
+            newCategory.setName("BENCHMARK");
+            return categoryRepository.save(newCategory);
+        });
+
+        long missing = (long) (DEEP_PAGE + 1) * PAGE_SIZE - productRepository.countByCategory_Name("BENCHMARK");
+        List<Product> products = new ArrayList<>();
+        for (long i = 0; i < missing; i++) {
+            Product product = new Product();
+            product.setName("Benchmark " + i);
+            product.setPrice(i);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAllBatched(products);
+        return category;
+    }
+
+    private long time(Runnable runnable) {
+        //warm up
+        runnable.run();
+
+        int iterations = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            runnable.run();
+        }
+        return (System.nanoTime() - start) / iterations / 1_000;
+    }
+}
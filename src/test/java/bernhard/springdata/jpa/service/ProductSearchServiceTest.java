@@ -0,0 +1,142 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ProductSearchServiceTest {
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void searchQuery() {
+        ProductSearchService.SearchQuery query = ProductSearchService.SearchQuery.of("iph pro", 3);
+        assertEquals(List.of("iph", "pro"), query.tokens());
+        assertEquals("iph* pro*", query.anyToken());
+        assertEquals("+iph* +pro*", query.requiredTokens(List.of()));
+
+        //category cocok dengan "iph": hanya "pro" yang wajib di nama product
+        assertEquals("+pro*", query.requiredTokens(List.of(0)));
+        assertTrue(query.sql(Map.of(List.of(0), List.of(1L))).contains(
+                "where p.category_id in (:categories0) and match(p.name) against (:required0 in boolean mode)"));
+        //category cocok dengan semua kata: seluruh isinya
+        assertFalse(query.sql(Map.of(List.of(0, 1), List.of(1L))).contains(":required0"));
+
+        //operator dibuang, kata di bawah min-token-size dipisah
+        query = ProductSearchService.SearchQuery.of("  \"iphone\" -14* ", 3);
+        assertEquals(List.of("iphone"), query.tokens());
+        assertEquals(List.of("14"), query.shortTokens());
+
+        assertTrue(ProductSearchService.SearchQuery.of("+-*", 3).isEmpty());
+    }
+
+    @Test
+    void searchByProductName() {
+        Slice<Product> products = productSearchService.search("iphone", 0, 10);
+        assertEquals(2, products.getContent().size());
+
+        products = productSearchService.search("iph 14", 0, 10);
+        assertEquals(1, products.getContent().size());
+        assertEquals("Apple Iphone 14 Pro Max", products.getContent().get(0).getName());
+
+        //hanya kata pendek
+        products = productSearchService.search("13", 0, 10);
+        assertEquals(1, products.getContent().size());
+        assertEquals("Apple Iphone 13 Pro Max", products.getContent().get(0).getName());
+    }
+
+    @Test
+    void searchAcrossFields() {
+        //"gadget" hanya di nama category, "iphone" hanya di nama product
+        Slice<Product> products = productSearchService.search("gadget iphone", 0, 10);
+        assertEquals(2, products.getContent().size());
+
+        assertTrue(productSearchService.search("gadget samsung", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchByCategoryName() {
+        Slice<Product> products = productSearchService.search("gadget", 0, 1);
+        assertEquals(1, products.getContent().size());
+        assertTrue(products.hasNext());
+    }
+
+    @Test
+    void searchEmpty() {
+        assertTrue(productSearchService.search("  ", 0, 10).isEmpty());
+    }
+
+    /**
+     * Jalankan dengan {@code mvn test -Dbenchmark=true -Dsearch.rows=5000000}. Compares the LIKE
+     * based searchProduct with the FULLTEXT search on the SEARCH category.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkSearch() {
+        seedSearchCategory(Long.getLong("search.rows", 5_000_000L));
+
+        long like = time(() -> productRepository.searchProduct("%Widget 4242%", PageRequest.of(0, 20)));
+        long fullText = time(() -> productSearchService.search("widget 4242", 0, 20));
+
+        System.out.printf("LIKE      : %,d us%n", like);
+        System.out.printf("FULLTEXT  : %,d us%n", fullText);
+    }
+
+    private void seedSearchCategory(long rows) {
+        Category category = categoryRepository.findFirstByNameEquals("SEARCH").orElseGet(() -> {
+            Category newCategory = new Category();
+            newCategory.setName("SEARCH");
+            return categoryRepository.save(newCategory);
+        });
+
+        long missing = rows - productRepository.countByCategory_Name("SEARCH");
+        List<Product> products = new ArrayList<>();
+        for (long i = 0; i < missing; i++) {
+            Product product = new Product();
+            product.setName("Widget " + i + " Model " + (i % 97));
+            product.setPrice(i);
+            product.setCategory(category);
+            products.add(product);
+
+            if (products.size() == 10_000) {
+                productRepository.saveAllBatched(products);
+                products = new ArrayList<>();
+            }
+        }
+        productRepository.saveAllBatched(products);
+    }
+
+    private long time(Runnable runnable) {
+        runnable.run();
+
+        int iterations = 5;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            runnable.run();
+        }
+        return (System.nanoTime() - start) / iterations / 1_000;
+    }
+}
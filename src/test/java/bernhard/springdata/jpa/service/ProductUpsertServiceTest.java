@@ -0,0 +1,144 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductUpsert;
+import bernhard.springdata.jpa.model.ProductUpsertResult;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "app.product-upsert.batch-size=10")
+public class ProductUpsertServiceTest {
+
+    private static final int TOTAL = 25;
+
+    @Autowired
+    private ProductUpsertService productUpsertService;
+
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < TOTAL; i++) {
+            productRepository.deleteProductUsingName(name(i));
+        }
+        if (categoryRepository.findFirstByNameEquals("UPSERT").isEmpty()) {
+            Category category = new Category();
+            category.setName("UPSERT");
+            categoryRepository.save(category);
+        }
+    }
+
+    @Test
+    void insertThenUpdate() {
+        long gadget = productCountService.countByCategoryName("GADGET MURAH");
+        long upsert = productCountService.countByCategoryName("UPSERT");
+
+        List<ProductUpsertResult> results = productUpsertService.upsert(products(1_000L, 0));
+        assertEquals(List.of(10, 10, 5), results.stream().map(ProductUpsertResult::inserted).toList());
+        assertEquals(List.of(0, 0, 0), results.stream().map(ProductUpsertResult::updated).toList());
+        assertEquals(gadget + TOTAL, productCountService.countByCategoryName("GADGET MURAH"));
+
+        //diulang dengan harga baru, 5 product pindah category: tidak ada baris baru
+        results = productUpsertService.upsert(products(2_000L, 5));
+        assertEquals(List.of(0, 0, 0), results.stream().map(ProductUpsertResult::inserted).toList());
+        assertEquals(List.of(10, 10, 5), results.stream().map(ProductUpsertResult::updated).toList());
+        assertEquals(gadget + TOTAL - 5, productCountService.countByCategoryName("GADGET MURAH"));
+        assertEquals(upsert + 5, productCountService.countByCategoryName("UPSERT"));
+
+        for (int i = 0; i < TOTAL; i++) {
+            List<Product> products = productRepository.searchProductUsingName(name(i));
+            assertEquals(1, products.size());
+            assertEquals(2_000L, products.get(0).getPrice());
+            assertEquals(1L, products.get(0).getVersion());
+        }
+    }
+
+    @Test
+    void duplicateNamesAndUnknownCategory() {
+        List<ProductUpsertResult> results = productUpsertService.upsert(List.of(
+                new ProductUpsert(name(0), 1_000L, "GADGET MURAH"),
+                new ProductUpsert(name(1), 1_000L, "TIDAK ADA"),
+                new ProductUpsert(name(0), 3_000L, "GADGET MURAH")
+        ));
+
+        assertEquals(List.of(new ProductUpsertResult(1, 1, 0, List.of(name(1)))), results);
+        assertEquals(3_000L, productRepository.searchProductUsingName(name(0)).get(0).getPrice());
+        assertEquals(0, productRepository.searchProductUsingName(name(1)).size());
+    }
+
+    @Test
+    void adoptProductCreatedElsewhere() {
+        //dibuat lewat save(): name_key NULL, tetap harus ditemukan upsert
+        Product product = new Product();
+        product.setName(name(0));
+        product.setPrice(1_000L);
+        product.setCategory(categoryRepository.findFirstByNameEquals("GADGET MURAH").orElseThrow());
+        productRepository.save(product);
+
+        for (int i = 0; i < 2; i++) {
+            List<ProductUpsertResult> results = productUpsertService.upsert(List.of(new ProductUpsert(name(0), 2_000L, "GADGET MURAH")));
+            assertEquals(List.of(new ProductUpsertResult(1, 0, 1, List.of())), results);
+        }
+
+        List<Product> products = productRepository.searchProductUsingName(name(0));
+        assertEquals(1, products.size());
+        assertEquals(product.getId(), products.get(0).getId());
+        assertEquals(name(0), products.get(0).getNameKey());
+        assertEquals(2_000L, products.get(0).getPrice());
+    }
+
+    @Test
+    void concurrentUpsertOfNewNames() {
+        long gadget = productCountService.countByCategoryName("GADGET MURAH");
+
+        //nama yang sama belum ada di kedua transaksi: yang kalah diulang dan menjadi update
+        CompletableFuture<List<ProductUpsertResult>> first = CompletableFuture.supplyAsync(() -> productUpsertService.upsert(products(1_000L, 0)));
+        CompletableFuture<List<ProductUpsertResult>> second = CompletableFuture.supplyAsync(() -> productUpsertService.upsert(products(2_000L, 0)));
+        List<ProductUpsertResult> results = Stream.of(first, second).flatMap(future -> future.join().stream()).toList();
+
+        assertEquals(TOTAL, results.stream().mapToInt(ProductUpsertResult::inserted).sum());
+        assertEquals(TOTAL, results.stream().mapToInt(ProductUpsertResult::updated).sum());
+        assertEquals(gadget + TOTAL, productCountService.countByCategoryName("GADGET MURAH"));
+        for (int i = 0; i < TOTAL; i++) {
+            assertEquals(1, productRepository.searchProductUsingName(name(i)).size());
+        }
+    }
+
+    @Test
+    void categoryNameRequired() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productUpsertService.upsert(List.of(new ProductUpsert(name(0), 1_000L, null))));
+    }
+
+    private List<ProductUpsert> products(long price, int moved) {
+        List<ProductUpsert> products = new ArrayList<>();
+        for (int i = 0; i < TOTAL; i++) {
+            products.add(new ProductUpsert(name(i), price, i < moved ? "UPSERT" : "GADGET MURAH"));
+        }
+        return products;
+    }
+
+    private static String name(int i) {
+        return String.format("Upsert %02d", i);
+    }
+}
@@ -0,0 +1,140 @@
+package bernhard.springdata.jpa.service;
+
+import bernhard.springdata.jpa.entity.Category;
+import bernhard.springdata.jpa.entity.Product;
+import bernhard.springdata.jpa.model.ProductWorkResult;
+import bernhard.springdata.jpa.repository.CategoryRepository;
+import bernhard.springdata.jpa.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ProductWorkerPoolTest {
+
+    private static final int PRODUCTS = 400;
+
+    private static final int BATCH_SIZE = 10;
+
+    //throughput per worker dengan 4 worker minimal separuh dari 1 worker (ideal: sama).
+    //pemrosesan didominasi sleep, jadi rasio ini tidak banyak bergantung pada beban CPU mesin
+    private static final double MIN_PER_WORKER_EFFICIENCY = 0.5;
+
+    @Autowired
+    private ProductWorkerPool productWorkerPool;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.findFirstByNameEquals("WORK QUEUE").orElseGet(() -> {
+            Category value = new Category();
+            value.setName("WORK QUEUE");
+            return categoryRepository.save(value);
+        });
+
+        long missing = PRODUCTS - productRepository.countByCategory_Name("WORK QUEUE");
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < missing; i++) {
+            Product product = new Product();
+            product.setName("Work Queue");
+            product.setPrice(1_000L);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAllBatched(products);
+    }
+
+    @Test
+    void scalesWithWorkersWithoutDoubleProcessing() {
+        Run single = run(1);
+        assertEquals(1, single.peak());
+
+        //batch tidak saling menunggu lock: lebih dari satu worker memproses pada saat yang sama
+        Run pool = run(4);
+        assertTrue(pool.peak() > 1, "peak concurrent workers " + pool.peak());
+
+        double efficiency = pool.perWorkerThroughput() / single.perWorkerThroughput();
+        assertTrue(efficiency >= MIN_PER_WORKER_EFFICIENCY, "per-worker throughput with " + pool.workers()
+                + " workers is " + efficiency + " of a single worker (" + single.elapsed() + " vs " + pool.elapsed() + ")");
+    }
+
+    @Test
+    void expiredLeaseCanBeClaimedAgain() throws InterruptedException {
+        Instant processedBefore = Instant.now();
+        List<Long> first = productRepository.claimProducts(category.getId(), "worker-a", processedBefore, Duration.ofMillis(1), BATCH_SIZE);
+        assertEquals(BATCH_SIZE, first.size());
+
+        Thread.sleep(10);
+        List<Long> second = productRepository.claimProducts(category.getId(), "worker-b", processedBefore, Duration.ofMinutes(1), BATCH_SIZE);
+        assertEquals(first, second);
+
+        //worker-a terlambat, hasilnya tidak boleh di-commit
+        assertEquals(0, productRepository.completeProducts(first, "worker-a", Instant.now()));
+        assertEquals(BATCH_SIZE, productRepository.completeProducts(second, "worker-b", Instant.now()));
+    }
+
+    private Run run(int workers) {
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        Set<Long> duplicates = ConcurrentHashMap.newKeySet();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Consumer<List<Product>> processor = products -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            products.forEach(product -> {
+                if (!processed.add(product.getId())) {
+                    duplicates.add(product.getId());
+                }
+            });
+            sleep(50);
+            active.decrementAndGet();
+        };
+
+        long start = System.nanoTime();
+        ProductWorkResult result = productWorkerPool.processCategory(category.getId(), Instant.now(), workers,
+                BATCH_SIZE, Duration.ofMinutes(1), processor);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(Set.of(), duplicates);
+        assertEquals(PRODUCTS, processed.size());
+        assertEquals(PRODUCTS, result.processed());
+        assertEquals(0, result.lostBatches());
+        return new Run(workers, peak.get(), elapsed);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //peak: jumlah worker terbanyak yang memproses batch bersamaan
+    private record Run(int workers, int peak, Duration elapsed) {
+
+        //produk per worker-detik
+        double perWorkerThroughput() {
+            return PRODUCTS * 1_000_000_000.0 / (elapsed.toNanos() * (double) workers);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- hanya data; schema replica disalin dari primary (ddl-auto), lihat ReadReplicaRoutingTest
+MERGE INTO categories (id, name, product_count, version) KEY (id) VALUES (1000, 'REPLICA', 1, 0);
+
+MERGE INTO products (id, name, price, category_id, version) KEY (id) VALUES (1000, 'Replica Product', 1, 1000, 0);